@@ -0,0 +1,28 @@
+package tree.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * this runs the benchmarks with the {@link GCProfiler}, so every result also has the bytes that were allocated per
+ * operation. the arguments are the same as the normal JMH arguments, for example
+ * {@code java -jar benchmarks.jar TreeBenchmark.contains -p size=1000,10000}
+ */
+public final class BenchmarkMain {
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine).addProfiler(GCProfiler.class);
+        if (commandLine.getIncludes().isEmpty()) {
+            options.include(TreeBenchmark.class.getSimpleName());
+        }
+        new Runner(options.build()).run();
+    }
+}
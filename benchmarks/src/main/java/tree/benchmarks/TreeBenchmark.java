@@ -0,0 +1,145 @@
+package tree.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tree.trees.AdaptiveTree;
+import tree.trees.AdvancedTree;
+import tree.trees.Tree;
+import tree.trees.TreeLoader;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * the operations of {@link Tree}, {@link AdvancedTree} and {@link AdaptiveTree} on every {@link TreeShape} and size.
+ *
+ * <p>the tree is built once per trial with a {@link TreeLoader}, the element of a node is its index in
+ * {@link TreeShape#parents(int)}. the searches look for the element of the last node in the order of
+ * {@link Tree#toArray()}, so they have to visit every node. {@link #insert()} builds the whole tree again with
+ * {@link Tree#insert(Object, boolean)} and {@link Tree#movePointerUp()} like a user of the tree would</p>
+ *
+ * <p>the recursive {@link Tree} gets a big stack, it can still throw a {@link StackOverflowError} on a
+ * {@link TreeShape#CHAIN}, then that combination fails and the others go on. {@link #toStringOfTree()} makes a prefix
+ * for every level, so on a {@link TreeShape#CHAIN} the {@code String} grows with the square of the size</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xss1g", "-Xmx16g"})
+public class TreeBenchmark {
+    @Param({"Tree", "AdvancedTree", "AdaptiveTree"})
+    public String implementation;
+
+    @Param({"CHAIN", "WIDE", "BALANCED", "RANDOM"})
+    public TreeShape shape;
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private Tree<Integer> tree;
+    private Integer[] preOrderElements;
+    private int[] preOrderDepths;
+    private Integer last;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int[] parents = shape.parents(size);
+        List<Integer> elements = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            elements.add(i);
+        }
+        tree = new TreeLoader().fromParentIndexes(elements, parents, newTree());
+
+        int[] order = TreeShape.preOrder(parents);
+        int[] depths = new int[size];
+        preOrderElements = new Integer[size];
+        preOrderDepths = new int[size];
+        for (int i = 0; i < size; i++) {
+            int node = order[i];
+            depths[node] = parents[node] == -1 ? 0 : depths[parents[node]] + 1;
+            preOrderElements[i] = elements.get(node);
+            preOrderDepths[i] = depths[node];
+        }
+        last = preOrderElements[size - 1];
+    }
+
+    private Tree<Integer> newTree() {
+        switch (implementation) {
+            case "AdvancedTree":
+                return new AdvancedTree<>();
+            case "AdaptiveTree":
+                return new AdaptiveTree<>();
+            default:
+                return new Tree<>();
+        }
+    }
+
+    @Benchmark
+    public Tree<Integer> insert() {
+        Tree<Integer> newTree = newTree();
+        int depth = 0;
+        newTree.insert(preOrderElements[0], true);
+        for (int i = 1; i < preOrderElements.length; i++) {
+            while (depth >= preOrderDepths[i]) {
+                newTree.movePointerUp();
+                depth--;
+            }
+            newTree.insert(preOrderElements[i], true);
+            depth++;
+        }
+        return newTree;
+    }
+
+    @Benchmark
+    public boolean contains() {
+        return tree.contains(last);
+    }
+
+    @Benchmark
+    public List<Integer> getAbsolutePadToElement() {
+        return tree.getAbsolutePadToElement(last);
+    }
+
+    @Benchmark
+    public List<List<Integer>> getAbsolutePatsToElement() {
+        return tree.getAbsolutePatsToElement(last);
+    }
+
+    @Benchmark
+    public List<Integer> toList() {
+        return tree.toList();
+    }
+
+    @Benchmark
+    public Object[] toArray() {
+        return tree.toArray();
+    }
+
+    @Benchmark
+    public Tree<Integer> makeCopyOfTree() {
+        return tree.makeCopyOfTree();
+    }
+
+    @Benchmark
+    public int getSize() {
+        return tree.getSize();
+    }
+
+    @Benchmark
+    public String toStringOfTree() {
+        return tree.toString();
+    }
+}
@@ -0,0 +1,103 @@
+package tree.benchmarks;
+
+import java.util.Random;
+
+/**
+ * the shapes of the trees in the benchmarks, every shape gives the index of the {@code parent} of every node as
+ * {@link tree.trees.TreeLoader#fromParentIndexes(java.util.List, int[])} reads it
+ */
+public enum TreeShape {
+    /**
+     * every node has one child, the depth is the number of nodes
+     */
+    CHAIN {
+        @Override
+        int parent(int i, Random random) {
+            return i - 1;
+        }
+    },
+    /**
+     * every node is a child of the {@code root}
+     */
+    WIDE {
+        @Override
+        int parent(int i, Random random) {
+            return 0;
+        }
+    },
+    /**
+     * every node has {@link #FAN_OUT} children, the depth is the logarithm of the number of nodes
+     */
+    BALANCED {
+        @Override
+        int parent(int i, Random random) {
+            return (i - 1) / FAN_OUT;
+        }
+    },
+    /**
+     * every node is a child of a random node that came before it, always with the same seed
+     */
+    RANDOM {
+        @Override
+        int parent(int i, Random random) {
+            return random.nextInt(i);
+        }
+    };
+
+    static final int FAN_OUT = 4;
+    private static final long SEED = 42;
+
+    abstract int parent(int i, Random random);
+
+    /**
+     * @param size the number of nodes
+     * @return the index of the {@code parent} of every node, {@code -1} for the {@code root} at index {@code 0}
+     */
+    public int[] parents(int size) {
+        Random random = new Random(SEED);
+        int[] parents = new int[size];
+        if (size > 0) {
+            parents[0] = -1;
+        }
+        for (int i = 1; i < size; i++) {
+            parents[i] = parent(i, random);
+        }
+        return parents;
+    }
+
+    /**
+     * @param parents the parents as returned by {@link #parents(int)}
+     * @return the nodes in the order of {@link tree.trees.Tree#toArray()}, the children of a node in the order of
+     * their index
+     */
+    public static int[] preOrder(int[] parents) {
+        int n = parents.length;
+        int[] start = new int[n + 1];
+        for (int i = 1; i < n; i++) {
+            start[parents[i] + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            start[i + 1] += start[i];
+        }
+        int[] children = new int[Math.max(n - 1, 0)];
+        int[] next = start.clone();
+        for (int i = 1; i < n; i++) {
+            children[next[parents[i]]++] = i;
+        }
+        int[] order = new int[n];
+        int[] stack = new int[n];
+        int count = 0;
+        int depth = 0;
+        if (n > 0) {
+            stack[depth++] = 0;
+        }
+        while (depth > 0) {
+            int node = stack[--depth];
+            order[count++] = node;
+            for (int c = start[node + 1] - 1; c >= start[node]; c--) {
+                stack[depth++] = children[c];
+            }
+        }
+        return order;
+    }
+}
@@ -4,12 +4,20 @@ import tree.trees.Tree;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * this class acts like links between node every node has one {@code parent} en multiple nodes as {@code children}held
  * in an {@link ArrayList}.
  *
  * <p>every {@code node} has an {@code element}</p>
+ * <p>every {@code node} knows its {@code index} in the children of its {@code parent} and its {@code depth}, so
+ * children should be added and removed with {@link #addChild(Node)} and {@link #removeChild(Node)} and not
+ * directly in the list of {@link #getChildren()}</p>
+ * <p>every {@code node} also counts the nodes in its subtree (itself included). when a child is added or removed
+ * the count of the node and the nodes above it are marked as changed, it stops at the first node that is already
+ * marked, and a count is only calculated again when it is asked. that way adding a node at the bottom of a long
+ * chain does not have to go all the way up every time</p>
  *
  * @param <E> the type of elements held in this node
  * @author Warre Wilms
@@ -19,12 +27,19 @@ import java.util.ArrayList;
 public class Node<E> implements Serializable {
     private final Node<E> parent;
     private final ArrayList<Node<E>> children;
+    private final int depth;
+    private int index;
+    private int size;
+    private boolean sizeChanged;
     private E element;
 
     public Node(E element, Node<E> parent) {
         this.element = element;
         children = new ArrayList<>();
         this.parent = parent;
+        depth = parent == null ? 0 : parent.depth + 1;
+        index = -1;
+        size = 1;
     }
 
 
@@ -35,8 +50,82 @@ public class Node<E> implements Serializable {
     }
 
     public void addChild(Node<E> child) {
+        child.index = children.size();
         children.add(child);
+        sizeChanged();
+    }
 
+    /**
+     * this adds the child at the index and moves the {@code index} of the children after it one place up
+     *
+     * @param index the index the child gets, from {@code 0} to the number of children
+     * @param child the child you want to add
+     * @throws IndexOutOfBoundsException when the index is not in that range
+     */
+    public void addChild(int index, Node<E> child) {
+        children.add(index, child);
+        for (int j = index; j < children.size(); j++) {
+            children.get(j).index = j;
+        }
+        sizeChanged();
+    }
+
+    /**
+     * this removes the child and moves the {@code index} of the children after it one place down
+     *
+     * @param child the child you want to remove
+     * @return {@code true} when the child was a child of this node
+     */
+    public boolean removeChild(Node<E> child) {
+        int i = child.index;
+        if (i < 0 || i >= children.size() || children.get(i) != child) {
+            i = children.indexOf(child);
+            if (i < 0) {
+                return false;
+            }
+        }
+        children.remove(i);
+        for (int j = i; j < children.size(); j++) {
+            children.get(j).index = j;
+        }
+        child.index = -1;
+        sizeChanged();
+        return true;
+    }
+
+    private void sizeChanged() {
+        Node<E> node = this;
+        while (!node.sizeChanged) {
+            node.sizeChanged = true;
+            if (node.parent == null || node.index < 0) {
+                return;
+            }
+            node = node.parent;
+        }
+    }
+
+    /**
+     * it calculates the count again for every changed node in the subtree, the children before their parent
+     */
+    private void updateSize() {
+        ArrayList<Node<E>> changed = new ArrayList<>();
+        changed.add(this);
+        for (int i = 0; i < changed.size(); i++) {
+            for (Node<E> child : changed.get(i).children) {
+                if (child.sizeChanged) {
+                    changed.add(child);
+                }
+            }
+        }
+        for (int i = changed.size() - 1; i >= 0; i--) {
+            Node<E> node = changed.get(i);
+            int newSize = 1;
+            for (Node<E> child : node.children) {
+                newSize += child.size;
+            }
+            node.size = newSize;
+            node.sizeChanged = false;
+        }
     }
 
     public Node<E> getParent() {
@@ -47,6 +136,21 @@ public class Node<E> implements Serializable {
         return children;
     }
 
+    /**
+     * @return the {@code index} of this node in the children of its {@code parent} or {@code -1} when it is not
+     * a child of its {@code parent}
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return the number of nodes above this node, the {@code root} has depth {@code 0}
+     */
+    public int getDepth() {
+        return depth;
+    }
+
     public E getElement() {
         return element;
     }
@@ -55,14 +159,68 @@ public class Node<E> implements Serializable {
         this.element = element;
     }
 
+    /**
+     * @return the number of nodes under this node
+     */
     public int getSizeUnderIt() {
-        int size = 0;
-        for (Node<E> child : children) {
-            size += child.getSizeUnderIt();
+        return getSubtreeSize() - 1;
+    }
+
+    /**
+     * @return the number of nodes in the subtree of this node, this node included
+     */
+    public int getSubtreeSize() {
+        if (sizeChanged) {
+            updateSize();
         }
         return size;
     }
 
+    /**
+     * this finds the {@code k}-th node of the subtree when you go through it the same way as
+     * {@link Tree#toArray()}, every node before its children. it uses the sizes of the subtrees so it does not
+     * have to go through the nodes before it.
+     *
+     * @param k the index of the node, {@code 0} is this node
+     * @return the {@code node} or {@code null} when {@code k} is not in the subtree
+     */
+    public Node<E> getNodeAtPreOrderIndex(int k) {
+        if (k < 0 || k >= getSubtreeSize()) {
+            return null;
+        }
+        Node<E> node = this;
+        while (k > 0) {
+            k--;
+            for (Node<E> child : node.children) {
+                if (k < child.size) {
+                    node = child;
+                    break;
+                }
+                k -= child.size;
+            }
+        }
+        return node;
+    }
+
+    /**
+     * this is the opposite of {@link #getNodeAtPreOrderIndex(int)} from the top of the tree
+     *
+     * @return the index of this node when you go through the whole tree from the top
+     */
+    public int getPreOrderIndex() {
+        int k = 0;
+        Node<E> node = this;
+        while (node.parent != null && node.index >= 0) {
+            k++;
+            List<Node<E>> siblings = node.parent.children;
+            for (int i = 0; i < node.index; i++) {
+                k += siblings.get(i).getSubtreeSize();
+            }
+            node = node.parent;
+        }
+        return k;
+    }
+
     @Override
     public String toString() {
         return "Node{" +
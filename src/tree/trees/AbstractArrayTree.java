@@ -0,0 +1,466 @@
+package tree.trees;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * the base of the trees that don't make an object for every node. every node is a {@code slot}, an index in
+ * parallel {@code int[]} arrays that hold the {@code parent}, the first child, the last child and the next sibling
+ * of the node. the subclasses keep the elements in an array with the same slots.
+ *
+ * <p>the {@code root} is always slot {@code 0}. a new node gets the next free slot at the end, when a node is removed
+ * it is only taken out of the children of its {@code parent} and its slot is only used again after
+ * {@link #compact()}. when more than half of the slots are removed the tree compacts itself</p>
+ *
+ * <p>the children of a node are a linked list of slots, so moving to the child with index {@code i} or asking the
+ * index of a node has to go past the siblings before it</p>
+ *
+ * @see CompactTree
+ * @see IntTree
+ */
+public abstract class AbstractArrayTree implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    protected static final int NONE = -1;
+    protected static final int ROOT = 0;
+    private static final int MIN_CAPACITY = 16;
+
+    protected int[] parents;
+    protected int[] firstChildren;
+    protected int[] lastChildren;
+    protected int[] nextSiblings;
+    /**
+     * the number of slots that are used, removed slots included
+     */
+    protected int used;
+    protected int size;
+    protected int pointer;
+    protected transient int modCount;
+
+    protected AbstractArrayTree() {
+        allocate(MIN_CAPACITY);
+        resizeElements(MIN_CAPACITY);
+        used = 1;
+        parents[ROOT] = NONE;
+        size = 0;
+        pointer = ROOT;
+    }
+
+    /**
+     * @param capacity the new length of the element array
+     */
+    protected abstract void resizeElements(int capacity);
+
+    /**
+     * this makes a new element array where the element of slot {@code order[i]} is in slot {@code i}
+     *
+     * @param order the old slot of every new slot
+     * @param count the number of slots in the new array that are used
+     * @param capacity the length of the new array
+     */
+    protected abstract void reorderElements(int[] order, int count, int capacity);
+
+    /**
+     * this is called when a slot is removed so the element can be released
+     *
+     * @param slot the removed slot
+     */
+    protected abstract void clearElement(int slot);
+
+    /**
+     * this adds the element of the slot to the builder for {@link #toString()}
+     */
+    protected abstract void appendElement(StringBuilder sb, int slot);
+
+    private void allocate(int capacity) {
+        parents = new int[capacity];
+        firstChildren = new int[capacity];
+        lastChildren = new int[capacity];
+        nextSiblings = new int[capacity];
+        Arrays.fill(firstChildren, NONE);
+        Arrays.fill(lastChildren, NONE);
+        Arrays.fill(nextSiblings, NONE);
+    }
+
+    private void grow() {
+        int capacity = parents.length + (parents.length >> 1);
+        int oldCapacity = parents.length;
+        parents = Arrays.copyOf(parents, capacity);
+        firstChildren = Arrays.copyOf(firstChildren, capacity);
+        lastChildren = Arrays.copyOf(lastChildren, capacity);
+        nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+        Arrays.fill(firstChildren, oldCapacity, capacity, NONE);
+        Arrays.fill(lastChildren, oldCapacity, capacity, NONE);
+        Arrays.fill(nextSiblings, oldCapacity, capacity, NONE);
+        resizeElements(capacity);
+    }
+
+    /**
+     * this adds a new node as last child of the parent
+     *
+     * @param parent the slot of the parent
+     * @return the slot of the new node
+     */
+    protected int addChildSlot(int parent) {
+        if (used == parents.length) {
+            grow();
+        }
+        int slot = used++;
+        parents[slot] = parent;
+        if (lastChildren[parent] == NONE) {
+            firstChildren[parent] = slot;
+        } else {
+            nextSiblings[lastChildren[parent]] = slot;
+        }
+        lastChildren[parent] = slot;
+        size++;
+        modCount++;
+        return slot;
+    }
+
+    /**
+     * this removes the node and everything under it, when it is the {@code root} the tree is cleared
+     *
+     * @param slot the slot of the node
+     */
+    protected void removeSlot(int slot) {
+        if (slot == ROOT) {
+            clear();
+            return;
+        }
+        int parent = parents[slot];
+        int previous = NONE;
+        for (int child = firstChildren[parent]; child != slot; child = nextSiblings[child]) {
+            previous = child;
+        }
+        if (previous == NONE) {
+            firstChildren[parent] = nextSiblings[slot];
+        } else {
+            nextSiblings[previous] = nextSiblings[slot];
+        }
+        if (lastChildren[parent] == slot) {
+            lastChildren[parent] = previous;
+        }
+        nextSiblings[slot] = NONE;
+        for (int current = slot; current != NONE; current = nextPreOrder(current, slot)) {
+            if (pointer == current) {
+                pointer = parent;
+            }
+            clearElement(current);
+            size--;
+        }
+        modCount++;
+        if (used - size - 1 > size && used > MIN_CAPACITY * 4) {
+            compact();
+        }
+    }
+
+    /**
+     * this gives the next slot where every node comes before its children, without a stack because every slot
+     * knows its {@code parent} and next sibling
+     *
+     * @param slot  the current slot
+     * @param start the slot where it started, it does not go past it
+     * @return the next slot or {@link #NONE} when the subtree is done
+     */
+    protected int nextPreOrder(int slot, int start) {
+        if (firstChildren[slot] != NONE) {
+            return firstChildren[slot];
+        }
+        while (slot != start) {
+            if (nextSiblings[slot] != NONE) {
+                return nextSiblings[slot];
+            }
+            slot = parents[slot];
+        }
+        return NONE;
+    }
+
+    /**
+     * @param slot the slot of the node where it starts
+     * @param matches the test for a slot
+     * @return the first slot under the node (the node included) that matches or {@link #NONE}
+     */
+    protected int findSlot(int slot, IntPredicate matches) {
+        if (size == 0) {
+            return NONE;
+        }
+        for (int current = slot; current != NONE; current = nextPreOrder(current, slot)) {
+            if (matches.test(current)) {
+                return current;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * @param slot the slot of the node where it starts
+     * @param matches the test for a slot
+     * @return every slot under the node (the node included) that matches, in the order of {@link #nextPreOrder}
+     */
+    protected int[] findSlots(int slot, IntPredicate matches) {
+        if (size == 0) {
+            return new int[0];
+        }
+        int[] found = new int[8];
+        int count = 0;
+        for (int current = slot; current != NONE; current = nextPreOrder(current, slot)) {
+            if (matches.test(current)) {
+                if (count == found.length) {
+                    found = Arrays.copyOf(found, count * 2);
+                }
+                found[count++] = current;
+            }
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    /**
+     * @param slot the slot of the parent
+     * @param i    the index of the child
+     * @return the slot of the child or {@link #NONE}
+     */
+    protected int childAt(int slot, int i) {
+        if (i < 0) {
+            return NONE;
+        }
+        int child = firstChildren[slot];
+        while (child != NONE && i-- > 0) {
+            child = nextSiblings[child];
+        }
+        return child;
+    }
+
+    /**
+     * @param slot the slot of a node that is not the {@code root}
+     * @return the index of the node in the children of its {@code parent}
+     */
+    protected int indexOf(int slot) {
+        int index = 0;
+        for (int child = firstChildren[parents[slot]]; child != slot; child = nextSiblings[child]) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * @param slot the slot of a node
+     * @return the absolute path to the node
+     */
+    protected int[] pathTo(int slot) {
+        int depth = 0;
+        for (int current = slot; current != ROOT; current = parents[current]) {
+            depth++;
+        }
+        int[] path = new int[depth];
+        for (int current = slot; current != ROOT; current = parents[current]) {
+            path[--depth] = indexOf(current);
+        }
+        return path;
+    }
+
+    /**
+     * @param slot the slot where the path starts
+     * @param path the path
+     * @return the slot at the end of the path or {@link #NONE} when it does not exist
+     */
+    protected int slotAtPath(int slot, int[] path) {
+        for (int index : path) {
+            slot = index == -1 ? parents[slot] : childAt(slot, index);
+            if (slot < 0) {
+                return NONE;
+            }
+        }
+        return slot;
+    }
+
+    /**
+     * This will move the {@code pointer} to the {@code parent} of the {@code pointer}
+     *
+     * @return {@code true} if the {@code pointer} has a {@code parent}
+     */
+    public boolean movePointerUp() {
+        if (pointer == ROOT) {
+            return false;
+        }
+        pointer = parents[pointer];
+        return true;
+    }
+
+    /**
+     * this wil move the pointer to the index given
+     *
+     * @param i is the index of the child you want to move to
+     * @return true when he can move down
+     */
+    public boolean movePointerDown(int i) {
+        int child = childAt(pointer, i);
+        if (child == NONE) {
+            return false;
+        }
+        pointer = child;
+        return true;
+    }
+
+    /**
+     * it will move up when the index is -1 otherwise it will move to the index given
+     *
+     * @param index is the index of the next node or -1 that means he moves up
+     * @return {@code true} when he can move that direction
+     */
+    public boolean movePointer(int index) {
+        if (index == -1) {
+            return movePointerUp();
+        }
+        return movePointerDown(index);
+    }
+
+    /**
+     * this will move the pointer to the given path from the {@code pointer}, when it can not move it stops at the
+     * last node it could reach
+     *
+     * @param relativePad the path
+     * @return {@code true} when he can move that direction completely.
+     */
+    public boolean setPointerToRelativePad(int[] relativePad) {
+        for (int j : relativePad) {
+            if (!movePointer(j)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * first it wil set the pointer to the root, Then it will do the same as {@link #setPointerToRelativePad(int[])}
+     *
+     * @param absolutePath the path
+     * @return {@code true} (as specified by {@link #setPointerToRelativePad(int[])})
+     */
+    public boolean setPointerToAbsolutePad(int[] absolutePath) {
+        setPointerToRoot();
+        return setPointerToRelativePad(absolutePath);
+    }
+
+    /**
+     * Sets the pointer to the root
+     */
+    public void setPointerToRoot() {
+        pointer = ROOT;
+    }
+
+    /**
+     * @param path the path from the {@code pointer}
+     * @return {@code true} when there was a node at the end of the path
+     */
+    public boolean removeNodeAtRelativePath(int[] path) {
+        int slot = slotAtPath(pointer, path);
+        if (slot == NONE || size == 0) {
+            return false;
+        }
+        removeSlot(slot);
+        return true;
+    }
+
+    /**
+     * @param path the path from the {@code root}
+     * @return {@code true} when there was a node at the end of the path
+     */
+    public boolean removeNodeAtAbsolutePathPath(int[] path) {
+        int slot = slotAtPath(ROOT, path);
+        if (slot == NONE || size == 0) {
+            return false;
+        }
+        removeSlot(slot);
+        return true;
+    }
+
+    /**
+     * @return the {@code size} of the tree
+     */
+    public int getSize() {
+        return size;
+    }
+
+    public void clear() {
+        allocate(MIN_CAPACITY);
+        resizeElements(MIN_CAPACITY);
+        for (int slot = 0; slot < Math.min(used, MIN_CAPACITY); slot++) {
+            clearElement(slot);
+        }
+        used = 1;
+        parents[ROOT] = NONE;
+        size = 0;
+        pointer = ROOT;
+        modCount++;
+    }
+
+    /**
+     * this puts the nodes that are not removed at the start of the arrays in the order of {@link #nextPreOrder},
+     * so the removed slots are freed and a subtree is in one block of slots. the paths to the nodes and the
+     * {@code pointer} stay the same
+     */
+    public void compact() {
+        int count = size == 0 ? 1 : size;
+        int capacity = Math.max(MIN_CAPACITY, count + (count >> 3));
+        int[] order = new int[count];
+        int[] newSlots = new int[used];
+        int next = 0;
+        for (int slot = ROOT; slot != NONE; slot = nextPreOrder(slot, ROOT)) {
+            order[next] = slot;
+            newSlots[slot] = next++;
+        }
+        int[] oldParents = parents;
+        int[] oldFirstChildren = firstChildren;
+        int[] oldLastChildren = lastChildren;
+        int[] oldNextSiblings = nextSiblings;
+        allocate(capacity);
+        for (int i = 0; i < count; i++) {
+            int slot = order[i];
+            parents[i] = oldParents[slot] < 0 ? oldParents[slot] : newSlots[oldParents[slot]];
+            firstChildren[i] = oldFirstChildren[slot] == NONE ? NONE : newSlots[oldFirstChildren[slot]];
+            lastChildren[i] = oldLastChildren[slot] == NONE ? NONE : newSlots[oldLastChildren[slot]];
+            nextSiblings[i] = oldNextSiblings[slot] == NONE ? NONE : newSlots[oldNextSiblings[slot]];
+        }
+        reorderElements(order, count, capacity);
+        pointer = newSlots[pointer];
+        used = count;
+    }
+
+    /**
+     * it returns the {@code String} to a tree structure like {@link Tree#toString()}, it does not use recursion and
+     * it changes the end of one prefix instead of making a new one for every node
+     *
+     * @return {@code String}
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        if (size == 0) {
+            return sb.append("null\n").toString();
+        }
+        StringBuilder prefix = new StringBuilder();
+        int slot = ROOT;
+        appendElement(sb, slot);
+        sb.append("\n");
+        while (true) {
+            if (firstChildren[slot] != NONE) {
+                prefix.append(slot == ROOT || nextSiblings[slot] == NONE ? "    " : "│   ");
+                slot = firstChildren[slot];
+            } else {
+                while (slot != ROOT && nextSiblings[slot] == NONE) {
+                    slot = parents[slot];
+                    prefix.setLength(Math.max(prefix.length() - 4, 0));
+                }
+                if (slot == ROOT) {
+                    return sb.toString();
+                }
+                slot = nextSiblings[slot];
+            }
+            sb.append(prefix).append(nextSiblings[slot] == NONE ? "└── " : "├── ");
+            appendElement(sb, slot);
+            sb.append("\n");
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package tree.trees;
+
+import tree.Node;
+
+import java.util.List;
+
+/**
+ * this tree chooses for every operation between the recursive methods of {@link Tree} and the {@link Traversal} of
+ * {@link AdvancedTree}. the recursive methods are faster on trees that are not deep, but they generate a
+ * {@link StackOverflowError} on deep trees, so it only uses them while the deepest node is not deeper than the
+ * {@code depthThreshold}.
+ *
+ * <p>the depth of the deepest node is kept up to date when nodes are added. when nodes are removed it is only
+ * marked as maybe too high, so removing stays fast, and it is counted again the first time it is above the
+ * threshold. a recursive call goes through the method of this class and of {@link Tree}, so it uses two stack frames
+ * for every level. the default threshold is far enough from the size of a normal stack</p>
+ *
+ * <p>it gives the same results as an {@link AdvancedTree}, also {@link #toList()} has the {@code root} in it</p>
+ *
+ * @param <E> see {@link Tree}
+ * @see AdvancedTree
+ */
+public class AdaptiveTree<E> extends AdvancedTree<E> {
+    private static final long serialVersionUID = 1L;
+
+    public static final int DEFAULT_DEPTH_THRESHOLD = 1000;
+
+    private final int depthThreshold;
+    /**
+     * the depth of the deepest node, when {@code heightExact} is {@code false} the deepest node can be less deep
+     */
+    private transient int height;
+    private transient boolean heightExact;
+
+    public AdaptiveTree() {
+        this(DEFAULT_DEPTH_THRESHOLD);
+    }
+
+    /**
+     * @param depthThreshold the depth of the deepest node up to where the recursive methods are used
+     * @throws IllegalArgumentException when the threshold is negative
+     */
+    public AdaptiveTree(int depthThreshold) {
+        if (depthThreshold < 0) {
+            throw new IllegalArgumentException("negative threshold: " + depthThreshold);
+        }
+        this.depthThreshold = depthThreshold;
+        heightExact = true;
+    }
+
+    public int getDepthThreshold() {
+        return depthThreshold;
+    }
+
+    /**
+     * @return the depth of the deepest node, {@code 0} when there is only a {@code root}
+     */
+    public int getHeight() {
+        if (!heightExact) {
+            measureHeight();
+        }
+        return height;
+    }
+
+    @Override
+    protected boolean useTraversal() {
+        if (height <= depthThreshold) {
+            return false;
+        }
+        if (!heightExact) {
+            measureHeight();
+        }
+        return height > depthThreshold;
+    }
+
+    /**
+     * the recursive method of {@link Tree} does not add the {@code root}, this adds it so the result does not
+     * depend on the depth of the tree
+     */
+    @Override
+    public void toList(List<E> list) {
+        if (size > 0 && !useTraversal()) {
+            list.add(root.getElement());
+        }
+        super.toList(list);
+    }
+
+    @Override
+    public Tree<E> makeCopyOfTree() {
+        AdaptiveTree<E> tree = (AdaptiveTree<E>) super.makeCopyOfTree();
+        tree.height = height;
+        tree.heightExact = heightExact;
+        return tree;
+    }
+
+    @Override
+    protected AdvancedTree<E> newEmptyTree() {
+        return new AdaptiveTree<>(depthThreshold);
+    }
+
+    @Override
+    protected void attached(Node<E> node) {
+        super.attached(node);
+        int depth = node.getDepth();
+        if (!node.getChildren().isEmpty()) {
+            Traversal<E> traversal = startTraversal(node, -1);
+            try {
+                int subtreeHeight = 0;
+                while (traversal.next()) {
+                    subtreeHeight = Math.max(subtreeHeight, traversal.depth());
+                }
+                depth += subtreeHeight;
+            } finally {
+                endTraversal(traversal);
+            }
+        }
+        height = Math.max(height, depth);
+    }
+
+    @Override
+    protected void detached(Node<E> node) {
+        super.detached(node);
+        heightExact = false;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        height = 0;
+        heightExact = true;
+    }
+
+    @Override
+    void replaceNodes(Node<E> root, int size, Node<E> pointer) {
+        super.replaceNodes(root, size, pointer);
+        height = Integer.MAX_VALUE;
+        heightExact = false;
+    }
+
+    private void measureHeight() {
+        int deepest = 0;
+        if (size > 0) {
+            Traversal<E> traversal = startTraversal(root, -1);
+            try {
+                while (traversal.next()) {
+                    deepest = Math.max(deepest, traversal.depth());
+                }
+            } finally {
+                endTraversal(traversal);
+            }
+        }
+        height = deepest;
+        heightExact = true;
+    }
+}
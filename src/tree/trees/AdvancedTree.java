@@ -5,117 +5,139 @@ import tree.Node;
 import java.util.*;
 
 /**
- * this extends the {@link Tree} class. it will not do things recursive but it will use a stack what will use more
- * memory and it will be slower but as long as you don't have a
+ * this extends the {@link Tree} class. it will not do things recursive so it will not generate a
+ * {@link StackOverflowError} on deep trees. it goes through the nodes with a {@link Traversal} that only keeps the
+ * {@code index} of every level in an {@code int[]} and is used again for the next call, so it does not make an
+ * object for every node it visits.
  * @see Tree
  * @param <E> see {@link Tree}
  */
 public class AdvancedTree<E> extends Tree<E> {
 
-    
+    /**
+     * @return {@code true} when the nodes are visited with a {@link Traversal}, when it is {@code false} the
+     * recursive methods of {@link Tree} are used
+     * @see AdaptiveTree
+     */
+    protected boolean useTraversal() {
+        return true;
+    }
+
     @Override
-    protected void buildString(StringBuilder sb, Node<E> node, String prefix, boolean isTail) {
-        class NodeWithPrefix {
-            final Node<E> node;
-            final String prefix;
-            final boolean isTail;
+    protected AdvancedTree<E> newEmptyTree() {
+        return new AdvancedTree<>();
+    }
 
-            NodeWithPrefix(Node<E> node, String prefix, boolean isTail) {
-                this.node = node;
-                this.prefix = prefix;
-                this.isTail = isTail;
-            }
+    /**
+     * it uses one {@link StringBuilder} for the prefix and only changes the end of it, so it does not make a new
+     * {@code String} for every node
+     */
+    @Override
+    protected void buildString(StringBuilder sb, Node<E> node, String prefix, boolean isTail) {
+        if (!useTraversal()) {
+            super.buildString(sb, node, prefix, isTail);
+            return;
         }
-        
-        Deque<NodeWithPrefix> stack = new ArrayDeque<>();
-        stack.push(new NodeWithPrefix(node, prefix, isTail));
-        while (!stack.isEmpty()) {
-
-            NodeWithPrefix current = stack.pop();
-            node = current.node;
-            prefix = current.prefix;
-            isTail = current.isTail;
-            addToBuilder(sb, node, prefix, isTail);
-            List<Node<E>> children = node.getChildren();
-            for (int i = children.size() - 1; i >= 0; i--) {
-                stack.push(new NodeWithPrefix(children.get(i), prefix + (isTail ? "    " : "│   "), i == children.size() - 1));
+        StringBuilder currentPrefix = new StringBuilder(prefix);
+        int startLength = prefix.length();
+        Traversal<E> traversal = startTraversal(node, -1);
+        try {
+            while (traversal.next()) {
+                if (metrics != null) {
+                    metrics.visit(traversal.node());
+                }
+                Node<E> current = traversal.node();
+                int depth = traversal.depth();
+                boolean currentIsTail = isTail;
+                if (depth > 0) {
+                    Node<E> parent = current.getParent();
+                    boolean parentIsTail = depth == 1 ? isTail
+                            : traversal.indexAt(depth - 2) == parent.getParent().getChildren().size() - 1;
+                    currentPrefix.setLength(startLength + 4 * (depth - 1));
+                    currentPrefix.append(parentIsTail ? "    " : "│   ");
+                    currentIsTail = traversal.indexAt(depth - 1) == parent.getChildren().size() - 1;
+                }
+                addToBuilder(sb, current, currentPrefix, currentIsTail);
             }
+        } finally {
+            endTraversal(traversal);
         }
     }
 
     @Override
     protected boolean pathToElement(LinkedList<Integer> path, Node<E> node, E e, int skipInt) {
-        Stack<Node<E>> stack = new Stack<>();
-        stack.push(node);
-        while (!stack.isEmpty()) {
-            node = stack.pop();
-            if (node.getElement().equals(e)) {
-                Node<E> currentPointer = pointer;
-                pointer = node;
-                path.addAll(getAbsolutePadToPointer());
-                pointer = currentPointer;
-                return true;
-            }
-            List<Node<E>> children = node.getChildren();
-            for (int i = children.size() - 1; i >= 0; i--) {
-                if (skipInt != i) {
-                    stack.push(children.get(i));
+        if (!useTraversal()) {
+            return super.pathToElement(path, node, e, skipInt);
+        }
+        Traversal<E> traversal = startTraversal(node, skipInt);
+        try {
+            while (traversal.next()) {
+                if (metrics != null) {
+                    metrics.visit(traversal.node());
+                }
+                if (traversal.node().getElement().equals(e)) {
+                    traversal.addPath(path);
+                    return true;
                 }
             }
+        } finally {
+            endTraversal(traversal);
         }
         return false;
     }
 
     @Override
     protected boolean patsToElement(List<List<Integer>> pats, LinkedList<Integer> currentPath, Node<E> node, E e, int skipInt, boolean found) {
-        Stack<Node<E>> stack = new Stack<>();
-        stack.push(node);
-        while (!stack.isEmpty()) {
-            node = stack.pop();
-            if (node.getElement().equals(e)) {
-                Node<E> currentPointer = pointer;
-                pointer = node;
-                pats.add(getAbsolutePadToPointer());
-                pointer = currentPointer;
-                found = true;
-            }
-            List<Node<E>> children = node.getChildren();
-            for (int i = children.size() - 1; i >= 0; i--) {
-                if (skipInt != i) {
-                    stack.push(children.get(i));
+        if (!useTraversal()) {
+            return super.patsToElement(pats, currentPath, node, e, skipInt, found);
+        }
+        Traversal<E> traversal = startTraversal(node, skipInt);
+        try {
+            while (traversal.next()) {
+                if (metrics != null) {
+                    metrics.visit(traversal.node());
+                }
+                if (traversal.node().getElement().equals(e)) {
+                    LinkedList<Integer> path = new LinkedList<>(currentPath);
+                    traversal.addPath(path);
+                    pats.add(path);
+                    found = true;
                 }
             }
-            skipInt=-1;
+        } finally {
+            endTraversal(traversal);
         }
         return found;
     }
 
+    /**
+     * it copies the nodes in the same order as {@link #toArray()}, the {@code parent} of a copy is found by going
+     * up from the last copy as many levels as the {@link Traversal} went up
+     */
     @Override
-    public Tree<E> makeCopyOfTree() {
-        Tree<E> tree = new AdvancedTree<>();
-        List<Integer> pathToPointer = getAbsolutePadToPointer();
-        Stack<Node<E>> stack = new Stack<>();
-        Stack<Node<E>> newNodeStack = new Stack<>();
-        stack.push(root);
-        Node<E> newNode=makeNewNode(root,null);
-        newNodeStack.push(newNode);
-        tree.root=newNode;
-        while (!stack.isEmpty()) {
-            Node<E> node = stack.pop();
-            newNode=newNodeStack.pop();
-
-            List<Node<E>> children = node.getChildren();
-            for (Node<E> child : children) {
-                node = child;
-                stack.push(node);
-                node = makeNewNode(node, newNode);
-                newNodeStack.push(node);
-                newNode.addChild(node);
+    protected Node<E> copySubtree(Node<E> subtreeRoot, Node<E> parent) {
+        if (!useTraversal()) {
+            return super.copySubtree(subtreeRoot, parent);
+        }
+        Traversal<E> traversal = startTraversal(subtreeRoot, -1);
+        try {
+            traversal.next();
+            Node<E> copy = makeNewNode(subtreeRoot, parent);
+            Node<E> newNode = copy;
+            int depth = 0;
+            while (traversal.next()) {
+                Node<E> newParent = newNode;
+                for (int i = depth; i >= traversal.depth(); i--) {
+                    newParent = newParent.getParent();
+                }
+                depth = traversal.depth();
+                newNode = makeNewNode(traversal.node(), newParent);
+                newParent.addChild(newNode);
             }
+            return copy;
+        } finally {
+            endTraversal(traversal);
         }
-        tree.setPointerToAbsolutePad(pathToPointer);
-        tree.size = size;
-        return tree;
     }
     private Node<E> makeNewNode(Node<E> node, Node<E> parrent) {
         Node<E> newNode=new Node<>(parrent);
@@ -124,90 +146,88 @@ public class AdvancedTree<E> extends Tree<E> {
     }
 
     @Override
-    public int getSize() {
-        int beginSize=size;
-        size = 0;
+    protected boolean contains(Node<E> node, E e) {
+        if (!useTraversal()) {
+            return super.contains(node, e);
+        }
+        Traversal<E> traversal = startTraversal(node, -1);
         try {
-            Stack<Node<E>> stack = new Stack<>();
-            stack.push(root);
-            while (!stack.isEmpty()) {
-                Node<E> node = stack.pop();
-                size++;
-                List<Node<E>> children = node.getChildren();
-                for (int i = children.size() - 1; i >= 0; i--) {
-                    stack.push(children.get(i));
+            while (traversal.next()) {
+                if (metrics != null) {
+                    metrics.visit(traversal.node());
+                }
+                if (traversal.node().getElement().equals(e)) {
+                    return true;
                 }
             }
-        } catch (Exception e) {
-            size=beginSize;
-            throw e;
-        }
-        return size;
-    }
-
-    @Override
-    protected boolean contains(Node<E> node, E e) {
-        Stack<Node<E>> stack = new Stack<>();
-        stack.push(node);
-        while (!stack.isEmpty()) {
-            node = stack.pop();
-            if (node.getElement().equals(e)) {
-                return true;
-            }
-            List<Node<E>> children = node.getChildren();
-            for (Node<E> child : children) {
-                stack.push(child);
-            }
+        } finally {
+            endTraversal(traversal);
         }
         return false;
     }
 
     @Override
     protected void toList(List<E> list, Node<E> node) {
-        Stack<Node<E>> stack = new Stack<>();
-        stack.push(root);
-        while (!stack.isEmpty()) {
-            node = stack.pop();
-            List<Node<E>> children = node.getChildren();
-            list.add(node.getElement());
-            for (Node<E> child : children) {
-                stack.push(child);
+        if (!useTraversal()) {
+            super.toList(list, node);
+            return;
+        }
+        Traversal<E> traversal = startTraversal(node, -1);
+        try {
+            while (traversal.next()) {
+                if (metrics != null) {
+                    metrics.visit(traversal.node());
+                }
+                list.add(traversal.node().getElement());
             }
+        } finally {
+            endTraversal(traversal);
         }
     }
 
     @Override
     protected int toArray(Object[] elements, Node<E> node, int index) {
-        Stack<Node<E>> stack = new Stack<>();
-        stack.push(node);
-        while (!stack.isEmpty()) {
-            node = stack.pop();
-            elements[index] = node.getElement();
-            List<Node<E>> children = node.getChildren();
-            for (Node<E> child : children) {
-                stack.push(child);
+        if (!useTraversal()) {
+            return super.toArray(elements, node, index);
+        }
+        Traversal<E> traversal = startTraversal(node, -1);
+        try {
+            while (traversal.next()) {
+                if (metrics != null) {
+                    metrics.visit(traversal.node());
+                }
+                elements[index++] = traversal.node().getElement();
             }
-            index++;
+        } finally {
+            endTraversal(traversal);
         }
         return index;
     }
 
     @Override
     protected boolean removeNode(Node<E> node, E e) {
-        LinkedList<Integer> path = new LinkedList<>();
-        boolean found = pathToElement(path, node, e, -1);
-        if (found) {
-            Node<E> currentPointer = pointer;
-            try {
-                setPointerToAbsolutePad(path);
-                Node<E> nodeToRemove = pointer;
-                movePointerUp();
-                pointer.getChildren().remove(nodeToRemove);
-            } finally {
-                pointer = currentPointer;
+        if (!useTraversal()) {
+            return super.removeNode(node, e);
+        }
+        Node<E> nodeToRemove = null;
+        Traversal<E> traversal = startTraversal(node, -1);
+        try {
+            while (traversal.next()) {
+                if (metrics != null) {
+                    metrics.visit(traversal.node());
+                }
+                if (traversal.node().getElement().equals(e)) {
+                    nodeToRemove = traversal.node();
+                    break;
+                }
             }
-
+        } finally {
+            endTraversal(traversal);
         }
-        return found;
+        if (nodeToRemove == null) {
+            return false;
+        }
+        removeNodeFromTree(nodeToRemove);
+        return true;
     }
 }
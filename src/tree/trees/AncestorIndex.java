@@ -0,0 +1,276 @@
+package tree.trees;
+
+import tree.Node;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * this answers questions about the ancestors of the nodes of a {@link Tree} without searching the tree every time.
+ *
+ * <p>a node is known by its index in the order of {@link Tree#toArray()}, the same index as
+ * {@link Tree#setPointerToPreOrderIndex(int)} and {@link Tree#getPreOrderIndexOfPointer()} use. an element is the
+ * first node with that element when you search from the {@code root}, like {@link Tree#getAbsolutePadToElement}.
+ * because the nodes of a subtree are next to each other in that order a node is an ancestor of another node when the
+ * index of the other node is in its subtree, and the lowest common ancestor of two nodes is the {@code parent} of the
+ * node with the smallest depth between them. that node is found with a sparse table in {@code O(1)}, the table
+ * costs {@code log(n)} {@code int}s for every node. the k-th ancestor is found with a binary search in the nodes with
+ * the same depth in {@code O(log n)}</p>
+ *
+ * <p>the index is made when it is first used. when a node is added or removed in the tree it is made again with the
+ * next question, so it is best for a tree that is asked a lot of questions between the changes</p>
+ *
+ * @param <E> the type of elements held in the tree
+ * @see Tree
+ */
+public final class AncestorIndex<E> {
+    private final Tree<E> tree;
+    private int builtModCount;
+    private boolean built;
+    private int size;
+    private int[] parents;
+    private int[] depths;
+    private int[] childIndexes;
+    private int[] subtreeSizes;
+    private int[] byDepth;
+    private int[] depthStart;
+    private int[][] minDepth;
+    private HashMap<E, Integer> firstIndex;
+
+    /**
+     * @param tree the tree the questions are about
+     */
+    public AncestorIndex(Tree<E> tree) {
+        this.tree = tree;
+    }
+
+    /**
+     * @param e the element
+     * @return the index of the first node with the element or {@code -1}
+     */
+    public int getPreOrderIndex(E e) {
+        update();
+        Integer index = firstIndex.get(e);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * @param node the index of a node
+     * @return the number of nodes above the node
+     */
+    public int getDepth(int node) {
+        update();
+        checkNode(node);
+        return depths[node];
+    }
+
+    /**
+     * @param node the index of a node
+     * @return the path from the {@code root} to the node, it can be given to {@link Tree#setPointerToAbsolutePad}
+     */
+    public List<Integer> getAbsolutePad(int node) {
+        update();
+        checkNode(node);
+        LinkedList<Integer> pad = new LinkedList<>();
+        for (int current = node; parents[current] != -1; current = parents[current]) {
+            pad.addFirst(childIndexes[current]);
+        }
+        return pad;
+    }
+
+    /**
+     * @param ancestor the index of the node that could be the ancestor
+     * @param node     the index of the other node
+     * @return {@code true} when the node is in the subtree of the ancestor, a node is its own ancestor
+     */
+    public boolean isAncestorIndex(int ancestor, int node) {
+        update();
+        checkNode(ancestor);
+        checkNode(node);
+        return ancestor <= node && node < ancestor + subtreeSizes[ancestor];
+    }
+
+    /**
+     * @see #isAncestorIndex(int, int)
+     * @throws NoSuchElementException when an element is not in the tree
+     */
+    public boolean isAncestor(E ancestor, E e) {
+        return isAncestorIndex(nodeOf(ancestor), nodeOf(e));
+    }
+
+    /**
+     * @return the index of the deepest node that is an ancestor of both nodes
+     */
+    public int lowestCommonAncestorIndex(int node1, int node2) {
+        update();
+        checkNode(node1);
+        checkNode(node2);
+        if (node1 == node2) {
+            return node1;
+        }
+        int from = Math.min(node1, node2) + 1;
+        int to = Math.max(node1, node2);
+        int level = 31 - Integer.numberOfLeadingZeros(to - from + 1);
+        int first = minDepth[level][from];
+        int second = minDepth[level][to - (1 << level) + 1];
+        return parents[depths[first] <= depths[second] ? first : second];
+    }
+
+    /**
+     * @return the path from the {@code root} to the deepest node that is an ancestor of both elements
+     * @throws NoSuchElementException when an element is not in the tree
+     */
+    public List<Integer> lowestCommonAncestor(E e1, E e2) {
+        return getAbsolutePad(lowestCommonAncestorIndex(nodeOf(e1), nodeOf(e2)));
+    }
+
+    /**
+     * @param node the index of a node
+     * @param k    the number of levels it goes up, {@code 1} is the {@code parent}
+     * @return the index of the ancestor or {@code -1} when the node is not that deep
+     */
+    public int kthAncestorIndex(int node, int k) {
+        update();
+        checkNode(node);
+        int depth = depths[node] - k;
+        if (k < 0 || depth < 0) {
+            return -1;
+        }
+        int low = depthStart[depth];
+        int high = depthStart[depth + 1] - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (byDepth[middle] <= node) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return byDepth[low];
+    }
+
+    /**
+     * @return the path from the {@code root} to the k-th ancestor of the element
+     * @throws NoSuchElementException when the element is not in the tree or it is not that deep
+     */
+    public List<Integer> kthAncestor(E e, int k) {
+        int ancestor = kthAncestorIndex(nodeOf(e), k);
+        if (ancestor == -1) {
+            throw new NoSuchElementException(e + " has no ancestor " + k + " levels up");
+        }
+        return getAbsolutePad(ancestor);
+    }
+
+    /**
+     * @return the number of steps from one node to the other, every step goes to a {@code parent} or a child
+     */
+    public int distanceBetweenIndexes(int node1, int node2) {
+        int ancestor = lowestCommonAncestorIndex(node1, node2);
+        return depths[node1] + depths[node2] - 2 * depths[ancestor];
+    }
+
+    /**
+     * @see #distanceBetweenIndexes(int, int)
+     * @throws NoSuchElementException when an element is not in the tree
+     */
+    public int distance(E e1, E e2) {
+        return distanceBetweenIndexes(nodeOf(e1), nodeOf(e2));
+    }
+
+    private int nodeOf(E e) {
+        int node = getPreOrderIndex(e);
+        if (node == -1) {
+            throw new NoSuchElementException(e + " is not in the tree");
+        }
+        return node;
+    }
+
+    private void checkNode(int node) {
+        if (node < 0 || node >= size) {
+            throw new IndexOutOfBoundsException("Index: " + node + ", Size: " + size);
+        }
+    }
+
+    /**
+     * it makes the index again when the tree is changed after it was made
+     */
+    private void update() {
+        if (built && builtModCount == tree.modCount) {
+            return;
+        }
+        build();
+        builtModCount = tree.modCount;
+        built = true;
+    }
+
+    private void build() {
+        size = tree.size;
+        parents = new int[size];
+        depths = new int[size];
+        childIndexes = new int[size];
+        subtreeSizes = new int[size];
+        firstIndex = new HashMap<>();
+        int maxDepth = 0;
+        if (size > 0) {
+            int[] lastAtDepth = new int[16];
+            int count = 0;
+            Traversal<E> traversal = tree.startTraversal(tree.root, -1);
+            try {
+                while (traversal.next()) {
+                    Node<E> node = traversal.node();
+                    int depth = traversal.depth();
+                    if (depth == lastAtDepth.length) {
+                        lastAtDepth = Arrays.copyOf(lastAtDepth, depth * 2);
+                    }
+                    lastAtDepth[depth] = count;
+                    parents[count] = depth == 0 ? -1 : lastAtDepth[depth - 1];
+                    childIndexes[count] = depth == 0 ? -1 : traversal.indexAt(depth - 1);
+                    depths[count] = depth;
+                    maxDepth = Math.max(maxDepth, depth);
+                    firstIndex.putIfAbsent(node.getElement(), count);
+                    count++;
+                }
+            } finally {
+                tree.endTraversal(traversal);
+            }
+        }
+        Arrays.fill(subtreeSizes, 1);
+        for (int i = size - 1; i > 0; i--) {
+            subtreeSizes[parents[i]] += subtreeSizes[i];
+        }
+
+        depthStart = new int[maxDepth + 2];
+        for (int i = 0; i < size; i++) {
+            depthStart[depths[i] + 1]++;
+        }
+        for (int d = 0; d <= maxDepth; d++) {
+            depthStart[d + 1] += depthStart[d];
+        }
+        byDepth = new int[size];
+        int[] next = Arrays.copyOf(depthStart, maxDepth + 1);
+        for (int i = 0; i < size; i++) {
+            byDepth[next[depths[i]]++] = i;
+        }
+
+        int levels = size == 0 ? 1 : 32 - Integer.numberOfLeadingZeros(size);
+        minDepth = new int[levels][];
+        minDepth[0] = new int[size];
+        for (int i = 0; i < size; i++) {
+            minDepth[0][i] = i;
+        }
+        for (int level = 1; level < levels; level++) {
+            int half = 1 << (level - 1);
+            int[] previous = minDepth[level - 1];
+            int[] current = new int[size - (1 << level) + 1];
+            for (int i = 0; i < current.length; i++) {
+                int first = previous[i];
+                int second = previous[i + half];
+                current[i] = depths[first] <= depths[second] ? first : second;
+            }
+            minDepth[level] = current;
+        }
+    }
+}
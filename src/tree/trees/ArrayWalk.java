@@ -0,0 +1,128 @@
+package tree.trees;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * it goes through the nodes under a node where every node comes before its children, for the trees where a node
+ * keeps its children in an array. it keeps the arrays of children it saw when it got to a node, so it goes on in the
+ * same arrays when a node gets other children while it walks. it does not use recursion
+ *
+ * @param <N> the type of the nodes
+ * @see ConcurrentTree
+ * @see PersistentTree
+ */
+final class ArrayWalk<N> {
+    private final Function<N, N[]> children;
+    private N[][] levels = newLevels(16);
+    private int[] indexes = new int[16];
+    private int depth;
+    private N current;
+    private boolean started;
+
+    /**
+     * @param start    the first node or {@code null} when there are no nodes
+     * @param children it gives the array of children of a node
+     */
+    ArrayWalk(N start, Function<N, N[]> children) {
+        this.children = children;
+        current = start;
+    }
+
+    /**
+     * it returns the {@code String} to a tree structure like {@link Tree#toString()} without recursion
+     *
+     * @param root     the {@code root} or {@code null} when the tree is empty
+     * @param children it gives the array of children of a node
+     * @param element  it gives the element of a node
+     * @return {@code String}
+     */
+    static <N> String toString(N root, Function<N, N[]> children, Function<N, ?> element) {
+        StringBuilder sb = new StringBuilder();
+        ArrayWalk<N> walk = new ArrayWalk<>(root, children);
+        if (!walk.next()) {
+            return sb.append("null\n").toString();
+        }
+        sb.append(element.apply(walk.node())).append("\n");
+        StringBuilder prefix = new StringBuilder();
+        while (walk.next()) {
+            int depth = walk.depth();
+            prefix.setLength(0);
+            prefix.append("    ");
+            for (int level = 0; level < depth - 1; level++) {
+                prefix.append(walk.isLast(level) ? "    " : "│   ");
+            }
+            sb.append(prefix).append(walk.isLast(depth - 1) ? "└── " : "├── ").append(element.apply(walk.node()))
+                    .append("\n");
+        }
+        return sb.toString();
+    }
+
+    boolean next() {
+        if (!started) {
+            started = true;
+            return current != null;
+        }
+        if (current == null) {
+            return false;
+        }
+        N[] nodes = children.apply(current);
+        if (nodes.length > 0) {
+            if (depth == levels.length) {
+                levels = Arrays.copyOf(levels, depth * 2);
+                indexes = Arrays.copyOf(indexes, depth * 2);
+            }
+            levels[depth] = nodes;
+            indexes[depth++] = 0;
+            current = nodes[0];
+            return true;
+        }
+        while (depth > 0) {
+            int next = indexes[depth - 1] + 1;
+            if (next < levels[depth - 1].length) {
+                indexes[depth - 1] = next;
+                current = levels[depth - 1][next];
+                return true;
+            }
+            levels[--depth] = null;
+        }
+        current = null;
+        return false;
+    }
+
+    N node() {
+        return current;
+    }
+
+    int depth() {
+        return depth;
+    }
+
+    /**
+     * @return {@code true} when the node on the path at the level is the last child of its {@code parent}
+     */
+    boolean isLast(int level) {
+        return indexes[level] == levels[level].length - 1;
+    }
+
+    /**
+     * @return the path from the first node to the current node
+     */
+    List<Integer> path() {
+        LinkedList<Integer> path = new LinkedList<>();
+        for (int i = 0; i < depth; i++) {
+            path.add(indexes[i]);
+        }
+        return path;
+    }
+
+    /**
+     * the arrays are only used in this class, so an {@code Object} array of arrays can hold every type of nodes
+     */
+    @SuppressWarnings("unchecked")
+    private static <N> N[][] newLevels(int length) {
+        return (N[][]) new Object[length][];
+    }
+}
@@ -0,0 +1,254 @@
+package tree.trees;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * a tree with the same {@code pointer} and path methods as {@link Tree} that does not make a {@link tree.Node} for
+ * every element. the structure is kept in {@code int[]} arrays as explained in {@link AbstractArrayTree} and the
+ * elements in one {@code Object[]}, so a node costs a few {@code int}s and one reference and the nodes that are added
+ * after each other are next to each other in memory.
+ *
+ * <p>nothing is done recursively, so it will not generate a {@link StackOverflowError}. moving to a child with an
+ * index and the paths to a node have to go past the siblings before it, so this tree is best for trees with a lot of
+ * small nodes that are not very wide</p>
+ *
+ * @param <E> the type of elements held in this tree
+ * @see AbstractArrayTree
+ * @see Tree
+ */
+public class CompactTree<E> extends AbstractArrayTree implements PointerTree<E> {
+    private static final long serialVersionUID = 1L;
+
+    private Object[] elements;
+
+    public CompactTree() {
+        super();
+    }
+
+    @Override
+    protected void resizeElements(int capacity) {
+        elements = elements == null ? new Object[capacity] : Arrays.copyOf(elements, capacity);
+    }
+
+    @Override
+    protected void reorderElements(int[] order, int count, int capacity) {
+        Object[] newElements = new Object[capacity];
+        for (int i = 0; i < count; i++) {
+            newElements[i] = elements[order[i]];
+        }
+        elements = newElements;
+    }
+
+    @Override
+    protected void clearElement(int slot) {
+        elements[slot] = null;
+    }
+
+    @Override
+    protected void appendElement(StringBuilder sb, int slot) {
+        sb.append(elements[slot]);
+    }
+
+    @SuppressWarnings("unchecked")
+    private E elementAt(int slot) {
+        return (E) elements[slot];
+    }
+
+    @Override
+    public void insert(E e, boolean movePointer) {
+        if (size == 0) {
+            elements[ROOT] = e;
+            size = 1;
+            modCount++;
+            return;
+        }
+        int slot = addChildSlot(pointer);
+        elements[slot] = e;
+        if (movePointer) {
+            pointer = slot;
+        }
+    }
+
+    @Override
+    public void insert(E e) {
+        insert(e, false);
+    }
+
+    @Override
+    public boolean movePointerDown(E e) {
+        for (int child = firstChildren[pointer]; child != NONE; child = nextSiblings[child]) {
+            if (Objects.equals(elements[child], e)) {
+                pointer = child;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean setPointerToRelativePad(List<Integer> relativePad) {
+        for (int j : relativePad) {
+            if (!movePointer(j)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean setPointerToAbsolutePad(List<Integer> absolutePath) {
+        setPointerToRoot();
+        return setPointerToRelativePad(absolutePath);
+    }
+
+    @Override
+    public List<Integer> getAbsolutePadToPointer() {
+        return toList(pathTo(pointer));
+    }
+
+    @Override
+    public E getAtPointer() {
+        return elementAt(pointer);
+    }
+
+    @Override
+    public E getElementAtRelativePath(int[] relativePad) {
+        int currentPointer = pointer;
+        setPointerToRelativePad(relativePad);
+        E e = elementAt(pointer);
+        pointer = currentPointer;
+        return e;
+    }
+
+    @Override
+    public E getElementAtAbsolutePath(int[] absolutePath) {
+        int currentPointer = pointer;
+        setPointerToAbsolutePad(absolutePath);
+        E e = elementAt(pointer);
+        pointer = currentPointer;
+        return e;
+    }
+
+    @Override
+    public List<Integer> getAbsolutePadToElement(E e) {
+        int slot = findSlot(ROOT, current -> Objects.equals(elements[current], e));
+        return slot == NONE ? new LinkedList<>() : toList(pathTo(slot));
+    }
+
+    @Override
+    public List<List<Integer>> getAbsolutePatsToElement(E e) {
+        int[] slots = findSlots(ROOT, current -> Objects.equals(elements[current], e));
+        List<List<Integer>> pats = new ArrayList<>(slots.length);
+        for (int slot : slots) {
+            pats.add(toList(pathTo(slot)));
+        }
+        return pats;
+    }
+
+    @Override
+    public boolean contains(E e) {
+        return findSlot(ROOT, current -> Objects.equals(elements[current], e)) != NONE;
+    }
+
+    @Override
+    public boolean remove(E e) {
+        int slot = findSlot(ROOT, current -> Objects.equals(elements[current], e));
+        if (slot == NONE) {
+            return false;
+        }
+        removeSlot(slot);
+        return true;
+    }
+
+    @Override
+    public boolean removeNodeAtRelativePath(List<Integer> path) {
+        return removeNodeAtRelativePath(toArray(path));
+    }
+
+    @Override
+    public boolean removeNodeAtAbsolutePathPath(List<Integer> path) {
+        return removeNodeAtAbsolutePathPath(toArray(path));
+    }
+
+    /**
+     * @return the elements in the order of {@link #toArray()}
+     */
+    @Override
+    public List<E> toList() {
+        List<E> list = new ArrayList<>(size);
+        for (E e : this) {
+            list.add(e);
+        }
+        return list;
+    }
+
+    /**
+     * @return the elements where every element comes before the elements under it
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public E[] toArray() {
+        Object[] array = new Object[size];
+        int i = 0;
+        if (size > 0) {
+            for (int slot = ROOT; slot != NONE; slot = nextPreOrder(slot, ROOT)) {
+                array[i++] = elements[slot];
+            }
+        }
+        return (E[]) array;
+    }
+
+    /**
+     * @return an {@link Iterator} in the order of {@link #toArray()} that throws a
+     * {@link ConcurrentModificationException} when the tree is changed while it is used
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<>() {
+            private final int expectedModCount = modCount;
+            private int next = size == 0 ? NONE : ROOT;
+
+            @Override
+            public boolean hasNext() {
+                return next != NONE;
+            }
+
+            @Override
+            public E next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (next == NONE) {
+                    throw new NoSuchElementException();
+                }
+                E e = elementAt(next);
+                next = nextPreOrder(next, ROOT);
+                return e;
+            }
+        };
+    }
+
+    private static List<Integer> toList(int[] path) {
+        List<Integer> list = new LinkedList<>();
+        for (int index : path) {
+            list.add(index);
+        }
+        return list;
+    }
+
+    private static int[] toArray(List<Integer> path) {
+        int[] array = new int[path.size()];
+        int i = 0;
+        for (int index : path) {
+            array[i++] = index;
+        }
+        return array;
+    }
+}
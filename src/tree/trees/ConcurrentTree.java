@@ -0,0 +1,614 @@
+package tree.trees;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * a tree that can be used by a lot of threads at the same time. it has no {@code pointer} itself, every thread makes
+ * its own {@link #cursor()} that has the {@code pointer} and the methods of {@link PointerTree}.
+ *
+ * <p>the children of a node are an array that is never changed, when a child is added or removed the node gets a
+ * new array. so reading the tree does not need a lock: a thread that reads the children sees the old array or the
+ * new array and never half of a change. a thread that adds a node only locks the stripe of the {@code parent}, so
+ * threads that add nodes to different parents mostly don't wait for each other. removing a node locks every stripe,
+ * it marks every node under it as removed so a cursor on a removed node goes up to the first node that is still in
+ * the tree</p>
+ *
+ * <p>a search or a path is made from the arrays it sees while it goes through the tree, when another thread changes
+ * the tree at the same time the result can already be outdated when it is returned</p>
+ *
+ * @param <E> the type of elements held in this tree
+ * @see Cursor
+ * @see Tree
+ */
+public class ConcurrentTree<E> implements Iterable<E> {
+    @SuppressWarnings("rawtypes")
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private final ReentrantLock[] locks;
+    private final LongAdder size = new LongAdder();
+    private volatile Node<E> root;
+
+    public ConcurrentTree() {
+        this(Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    /**
+     * @param stripes the number of locks for adding nodes, it is rounded up to a power of two
+     */
+    public ConcurrentTree(int stripes) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("stripes must be positive: " + stripes);
+        }
+        int length = 1;
+        while (length < stripes) {
+            length <<= 1;
+        }
+        locks = new ReentrantLock[length];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * @return a new {@link Cursor} with the {@code pointer} at the {@code root}, it should only be used by one
+     * thread
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * @return the number of elements in the tree
+     */
+    public int getSize() {
+        return (int) size.sum();
+    }
+
+    public boolean contains(E e) {
+        return find(root, e) != null;
+    }
+
+    /**
+     * @param e the element you want to find
+     * @return the path from the {@code root} to the first node with the element or an empty list
+     */
+    public List<Integer> getAbsolutePadToElement(E e) {
+        ArrayWalk<Node<E>> walk = walk(root);
+        while (walk.next()) {
+            if (Objects.equals(walk.node().element, e)) {
+                return walk.path();
+            }
+        }
+        return new LinkedList<>();
+    }
+
+    /**
+     * @param e the element you want to find
+     * @return the paths from the {@code root} to every node with the element
+     */
+    public List<List<Integer>> getAbsolutePatsToElement(E e) {
+        List<List<Integer>> pats = new ArrayList<>();
+        ArrayWalk<Node<E>> walk = walk(root);
+        while (walk.next()) {
+            if (Objects.equals(walk.node().element, e)) {
+                pats.add(walk.path());
+            }
+        }
+        return pats;
+    }
+
+    /**
+     * @param absolutePath this is the path from the root to the element
+     * @return the element at the end of the path, when it can not go further it stops at the last node it reached
+     */
+    public E getElementAtAbsolutePath(int[] absolutePath) {
+        Node<E> node = follow(root, absolutePath);
+        return node == null ? null : node.element;
+    }
+
+    /**
+     * this removes the first node with the element and everything under it
+     *
+     * @param e the element you want to remove
+     * @return {@code true} when there was a node with the element
+     */
+    public boolean remove(E e) {
+        while (true) {
+            Node<E> node = find(root, e);
+            if (node == null) {
+                return false;
+            }
+            if (removeNode(node)) {
+                return true;
+            }
+        }
+    }
+
+    public void clear() {
+        lockAll();
+        try {
+            Node<E> oldRoot = root;
+            if (oldRoot != null) {
+                root = null;
+                size.add(-markRemoved(oldRoot));
+            }
+        } finally {
+            unlockAll();
+        }
+    }
+
+    /**
+     * @return the elements where every element comes before the elements under it
+     */
+    public List<E> toList() {
+        List<E> list = new ArrayList<>();
+        ArrayWalk<Node<E>> walk = walk(root);
+        while (walk.next()) {
+            list.add(walk.node().element);
+        }
+        return list;
+    }
+
+    /**
+     * @return an {@link Iterator} in the order of {@link #toList()}, it does not throw a
+     * {@link java.util.ConcurrentModificationException}, it goes on with the arrays it already saw
+     */
+    @Override
+    public Iterator<E> iterator() {
+        ArrayWalk<Node<E>> walk = walk(root);
+        return new Iterator<>() {
+            private boolean hasNext = walk.next();
+
+            @Override
+            public boolean hasNext() {
+                return hasNext;
+            }
+
+            @Override
+            public E next() {
+                if (!hasNext) {
+                    throw new NoSuchElementException();
+                }
+                E e = walk.node().element;
+                hasNext = walk.next();
+                return e;
+            }
+        };
+    }
+
+    /**
+     * it returns the {@code String} to a tree structure like {@link Tree#toString()} without recursion
+     *
+     * @return {@code String}
+     */
+    @Override
+    public String toString() {
+        return ArrayWalk.toString(root, node -> node.children, node -> node.element);
+    }
+
+    private ReentrantLock lockFor(Node<E> node) {
+        int h = System.identityHashCode(node);
+        return locks[(h ^ (h >>> 16)) & (locks.length - 1)];
+    }
+
+    private void lockAll() {
+        for (ReentrantLock lock : locks) {
+            lock.lock();
+        }
+    }
+
+    private void unlockAll() {
+        for (int i = locks.length - 1; i >= 0; i--) {
+            locks[i].unlock();
+        }
+    }
+
+    /**
+     * this adds the element under the node, when the node is removed it is added under the first node above it that
+     * is still in the tree and when the tree is empty it will be the {@code root}
+     *
+     * @return the new node
+     */
+    private Node<E> insert(Node<E> at, E e) {
+        while (true) {
+            Node<E> parent = attached(at);
+            if (parent == null) {
+                lockAll();
+                try {
+                    if (root == null) {
+                        root = new Node<>(e, null);
+                        size.increment();
+                        return root;
+                    }
+                    at = root;
+                } finally {
+                    unlockAll();
+                }
+                continue;
+            }
+            ReentrantLock lock = lockFor(parent);
+            lock.lock();
+            try {
+                if (!parent.removed) {
+                    Node<E> node = new Node<>(e, parent);
+                    Node<E>[] children = parent.children;
+                    Node<E>[] newChildren = Arrays.copyOf(children, children.length + 1);
+                    newChildren[children.length] = node;
+                    parent.children = newChildren;
+                    size.increment();
+                    return node;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * this removes the node and everything under it
+     *
+     * @return {@code false} when the node was already removed
+     */
+    private boolean removeNode(Node<E> node) {
+        lockAll();
+        try {
+            if (node.removed) {
+                return false;
+            }
+            Node<E> parent = node.parent;
+            if (parent == null) {
+                root = null;
+            } else {
+                Node<E>[] children = parent.children;
+                int i = indexOf(children, node);
+                Node<E>[] newChildren = Arrays.copyOf(children, children.length - 1);
+                System.arraycopy(children, i + 1, newChildren, i, children.length - i - 1);
+                parent.children = newChildren;
+            }
+            size.add(-markRemoved(node));
+            return true;
+        } finally {
+            unlockAll();
+        }
+    }
+
+    /**
+     * @return the number of nodes that are marked
+     */
+    private int markRemoved(Node<E> node) {
+        int count = 0;
+        Deque<Node<E>> stack = new ArrayDeque<>();
+        stack.push(node);
+        while (!stack.isEmpty()) {
+            Node<E> current = stack.pop();
+            current.removed = true;
+            count++;
+            for (Node<E> child : current.children) {
+                stack.push(child);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return the node or the first node above it that is not removed, or {@code null}
+     */
+    private static <E> Node<E> attached(Node<E> node) {
+        while (node != null && node.removed) {
+            node = node.parent;
+        }
+        return node;
+    }
+
+    private static <E> int indexOf(Node<E>[] children, Node<E> node) {
+        for (int i = 0; i < children.length; i++) {
+            if (children[i] == node) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static <E> Node<E> find(Node<E> start, E e) {
+        ArrayWalk<Node<E>> walk = walk(start);
+        while (walk.next()) {
+            if (Objects.equals(walk.node().element, e)) {
+                return walk.node();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the node at the end of the path or the last node it could reach
+     */
+    private static <E> Node<E> follow(Node<E> node, int[] path) {
+        if (node == null) {
+            return null;
+        }
+        for (int index : path) {
+            Node<E> next = step(node, index);
+            if (next == null) {
+                return node;
+            }
+            node = next;
+        }
+        return node;
+    }
+
+    /**
+     * @return the {@code parent} when the index is {@code -1}, otherwise the child with the index or {@code null}
+     */
+    private static <E> Node<E> step(Node<E> node, int index) {
+        if (index == -1) {
+            return node.parent;
+        }
+        Node<E>[] children = node.children;
+        return index >= 0 && index < children.length ? children[index] : null;
+    }
+
+    private static <E> List<Integer> pathTo(Node<E> node) {
+        LinkedList<Integer> path = new LinkedList<>();
+        while (node != null && node.parent != null) {
+            path.addFirst(indexOf(node.parent.children, node));
+            node = node.parent;
+        }
+        return path;
+    }
+
+    /**
+     * the walk reads the volatile array of children of a node once, when it gets to the node
+     */
+    private static <E> ArrayWalk<Node<E>> walk(Node<E> start) {
+        return new ArrayWalk<>(start, node -> node.children);
+    }
+
+    /**
+     * a node of a {@link ConcurrentTree}
+     */
+    private static final class Node<E> {
+        private final Node<E> parent;
+        private final E element;
+        @SuppressWarnings("unchecked")
+        private volatile Node<E>[] children = NO_CHILDREN;
+        private volatile boolean removed;
+
+        Node(E element, Node<E> parent) {
+            this.element = element;
+            this.parent = parent;
+        }
+    }
+
+    /**
+     * the {@code pointer} of one thread in a {@link ConcurrentTree}. the methods that move the {@code pointer} only
+     * change the cursor, the methods that change the tree change it for every thread.
+     *
+     * <p>when the node of the {@code pointer} is removed by another thread the {@code pointer} moves up to the
+     * first node above it that is still in the tree</p>
+     */
+    public final class Cursor implements PointerTree<E> {
+        private Node<E> pointer = root;
+
+        private Cursor() {
+        }
+
+        private Node<E> current() {
+            Node<E> node = attached(pointer);
+            if (node == null) {
+                node = root;
+            }
+            pointer = node;
+            return node;
+        }
+
+        /**
+         * @return the {@link ConcurrentTree} of this cursor
+         */
+        public ConcurrentTree<E> getTree() {
+            return ConcurrentTree.this;
+        }
+
+        @Override
+        public void insert(E e, boolean movePointer) {
+            Node<E> node = ConcurrentTree.this.insert(current(), e);
+            if (movePointer || pointer == null) {
+                pointer = node;
+            }
+        }
+
+        @Override
+        public void insert(E e) {
+            insert(e, false);
+        }
+
+        @Override
+        public boolean movePointerUp() {
+            Node<E> node = current();
+            if (node == null || node.parent == null) {
+                return false;
+            }
+            pointer = node.parent;
+            return true;
+        }
+
+        @Override
+        public boolean movePointerDown(E e) {
+            Node<E> node = current();
+            if (node == null) {
+                return false;
+            }
+            for (Node<E> child : node.children) {
+                if (Objects.equals(child.element, e)) {
+                    pointer = child;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public boolean movePointerDown(int i) {
+            Node<E> node = current();
+            Node<E> child = node == null || i < 0 ? null : step(node, i);
+            if (child == null) {
+                return false;
+            }
+            pointer = child;
+            return true;
+        }
+
+        @Override
+        public boolean movePointer(int index) {
+            if (index == -1) {
+                return movePointerUp();
+            }
+            return movePointerDown(index);
+        }
+
+        @Override
+        public boolean setPointerToRelativePad(int[] relativePad) {
+            for (int j : relativePad) {
+                if (!movePointer(j)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public boolean setPointerToRelativePad(List<Integer> relativePad) {
+            for (int j : relativePad) {
+                if (!movePointer(j)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public boolean setPointerToAbsolutePad(int[] absolutePath) {
+            setPointerToRoot();
+            return setPointerToRelativePad(absolutePath);
+        }
+
+        @Override
+        public boolean setPointerToAbsolutePad(List<Integer> absolutePath) {
+            setPointerToRoot();
+            return setPointerToRelativePad(absolutePath);
+        }
+
+        @Override
+        public List<Integer> getAbsolutePadToPointer() {
+            return pathTo(current());
+        }
+
+        @Override
+        public void setPointerToRoot() {
+            pointer = root;
+        }
+
+        @Override
+        public E getAtPointer() {
+            Node<E> node = current();
+            return node == null ? null : node.element;
+        }
+
+        /**
+         * this does not move the {@code pointer}
+         */
+        @Override
+        public E getElementAtRelativePath(int[] relativePad) {
+            Node<E> node = follow(current(), relativePad);
+            return node == null ? null : node.element;
+        }
+
+        @Override
+        public E getElementAtAbsolutePath(int[] absolutePath) {
+            return ConcurrentTree.this.getElementAtAbsolutePath(absolutePath);
+        }
+
+        @Override
+        public List<Integer> getAbsolutePadToElement(E e) {
+            return ConcurrentTree.this.getAbsolutePadToElement(e);
+        }
+
+        @Override
+        public List<List<Integer>> getAbsolutePatsToElement(E e) {
+            return ConcurrentTree.this.getAbsolutePatsToElement(e);
+        }
+
+        @Override
+        public boolean contains(E e) {
+            return ConcurrentTree.this.contains(e);
+        }
+
+        @Override
+        public boolean remove(E e) {
+            return ConcurrentTree.this.remove(e);
+        }
+
+        @Override
+        public boolean removeNodeAtRelativePath(List<Integer> path) {
+            return removeAtPath(current(), path);
+        }
+
+        @Override
+        public boolean removeNodeAtAbsolutePathPath(List<Integer> path) {
+            return removeAtPath(root, path);
+        }
+
+        private boolean removeAtPath(Node<E> node, List<Integer> path) {
+            if (node == null) {
+                return false;
+            }
+            for (int index : path) {
+                node = step(node, index);
+                if (node == null) {
+                    return false;
+                }
+            }
+            return removeNode(node);
+        }
+
+        @Override
+        public int getSize() {
+            return ConcurrentTree.this.getSize();
+        }
+
+        @Override
+        public List<E> toList() {
+            return ConcurrentTree.this.toList();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E[] toArray() {
+            return (E[]) toList().toArray();
+        }
+
+        @Override
+        public void clear() {
+            ConcurrentTree.this.clear();
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return ConcurrentTree.this.iterator();
+        }
+
+        @Override
+        public String toString() {
+            return ConcurrentTree.this.toString();
+        }
+    }
+}
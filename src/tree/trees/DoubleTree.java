@@ -0,0 +1,237 @@
+package tree.trees;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.DoubleStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * a tree of {@code double}s like a {@code Tree<Double>}, but the elements are kept in a {@code double[]} so an
+ * element is never boxed. it works the same as {@link IntTree}.
+ *
+ * <p>the methods that search an element compare like {@link Double#equals(Object)} and not with {@code ==}, so
+ * {@code NaN} can be found and {@code 0.0} and {@code -0.0} are not the same, just like in a {@code Tree<Double>}</p>
+ *
+ * @see IntTree
+ * @see LongTree
+ */
+public class DoubleTree extends AbstractArrayTree {
+    private static final long serialVersionUID = 1L;
+
+    private double[] elements;
+
+    public DoubleTree() {
+        super();
+    }
+
+    @Override
+    protected void resizeElements(int capacity) {
+        elements = elements == null ? new double[capacity] : Arrays.copyOf(elements, capacity);
+    }
+
+    @Override
+    protected void reorderElements(int[] order, int count, int capacity) {
+        double[] newElements = new double[capacity];
+        for (int i = 0; i < count; i++) {
+            newElements[i] = elements[order[i]];
+        }
+        elements = newElements;
+    }
+
+    @Override
+    protected void clearElement(int slot) {
+        elements[slot] = 0.0;
+    }
+
+    @Override
+    protected void appendElement(StringBuilder sb, int slot) {
+        sb.append(elements[slot]);
+    }
+
+    /**
+     * This will add the given element to the place of the {@code pointer}, when the tree is empty it will be the
+     * {@code root}
+     *
+     * @param e           the element you want to add
+     * @param movePointer if {@code true} then the {@code pointer} will be the node with the element
+     */
+    public void insert(double e, boolean movePointer) {
+        if (size == 0) {
+            elements[ROOT] = e;
+            size = 1;
+            modCount++;
+            return;
+        }
+        int slot = addChildSlot(pointer);
+        elements[slot] = e;
+        if (movePointer) {
+            pointer = slot;
+        }
+    }
+
+    /**
+     * This will add the given element to the place of the pointer
+     *
+     * @param e the element you want to add
+     */
+    public void insert(double e) {
+        insert(e, false);
+    }
+
+    /**
+     * this moves the {@code pointer} to the first child with the element, it has another name than
+     * {@link #movePointerDown(int)} because that one takes the index of the child
+     *
+     * @param e the element of the child
+     * @return {@code true} when there is a child with the element
+     */
+    public boolean movePointerDownTo(double e) {
+        for (int child = firstChildren[pointer]; child != NONE; child = nextSiblings[child]) {
+            if (same(elements[child], e)) {
+                pointer = child;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the element in the pointer
+     */
+    public double getAtPointer() {
+        return elements[pointer];
+    }
+
+    /**
+     * @param relativePad this is the path from the {@code pointer} to the element you want to return
+     * @return the element at the end of the path
+     */
+    public double getElementAtRelativePath(int[] relativePad) {
+        int currentPointer = pointer;
+        setPointerToRelativePad(relativePad);
+        double e = elements[pointer];
+        pointer = currentPointer;
+        return e;
+    }
+
+    /**
+     * @param absolutePath this is the path from the root to the element
+     * @return the element at the end of the path
+     */
+    public double getElementAtAbsolutePath(int[] absolutePath) {
+        int currentPointer = pointer;
+        setPointerToAbsolutePad(absolutePath);
+        double e = elements[pointer];
+        pointer = currentPointer;
+        return e;
+    }
+
+    /**
+     * @return the path from the {@code root} to the {@code pointer}
+     */
+    public int[] getAbsolutePadToPointer() {
+        return pathTo(pointer);
+    }
+
+    /**
+     * @param e the element you want to find
+     * @return the path from the {@code root} to the first node with the element or an empty array
+     */
+    public int[] getAbsolutePadToElement(double e) {
+        int slot = findSlot(ROOT, current -> same(elements[current], e));
+        return slot == NONE ? new int[0] : pathTo(slot);
+    }
+
+    /**
+     * @param e the element you want to find
+     * @return the paths from the {@code root} to every node with the element
+     */
+    public int[][] getAbsolutePatsToElement(double e) {
+        int[] slots = findSlots(ROOT, current -> same(elements[current], e));
+        int[][] pats = new int[slots.length][];
+        for (int i = 0; i < slots.length; i++) {
+            pats[i] = pathTo(slots[i]);
+        }
+        return pats;
+    }
+
+    public boolean contains(double e) {
+        return findSlot(ROOT, current -> same(elements[current], e)) != NONE;
+    }
+
+    /**
+     * this removes the first node with the element and everything under it
+     *
+     * @param e the element you want to remove
+     * @return {@code true} when there was a node with the element
+     */
+    public boolean remove(double e) {
+        int slot = findSlot(ROOT, current -> same(elements[current], e));
+        if (slot == NONE) {
+            return false;
+        }
+        removeSlot(slot);
+        return true;
+    }
+
+    /**
+     * @return the elements where every element comes before the elements under it
+     */
+    public double[] toArray() {
+        double[] array = new double[size];
+        int i = 0;
+        if (size > 0) {
+            for (int slot = ROOT; slot != NONE; slot = nextPreOrder(slot, ROOT)) {
+                array[i++] = elements[slot];
+            }
+        }
+        return array;
+    }
+
+    /**
+     * @return an iterator in the order of {@link #toArray()} that throws a {@link ConcurrentModificationException}
+     * when the tree is changed while it is used
+     */
+    public PrimitiveIterator.OfDouble iterator() {
+        return new PrimitiveIterator.OfDouble() {
+            private final int expectedModCount = modCount;
+            private int next = size == 0 ? NONE : ROOT;
+
+            @Override
+            public boolean hasNext() {
+                return next != NONE;
+            }
+
+            @Override
+            public double nextDouble() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (next == NONE) {
+                    throw new NoSuchElementException();
+                }
+                double e = elements[next];
+                next = nextPreOrder(next, ROOT);
+                return e;
+            }
+        };
+    }
+
+    /**
+     * @return a sequential {@link DoubleStream} in the order of {@link #toArray()}
+     */
+    public DoubleStream stream() {
+        return StreamSupport.doubleStream(Spliterators.spliterator(iterator(), size, Spliterator.ORDERED), false);
+    }
+
+    /**
+     * @return {@code true} when the elements are the same like {@link Double#equals(Object)}
+     */
+    private static boolean same(double e1, double e2) {
+        return Double.doubleToLongBits(e1) == Double.doubleToLongBits(e2);
+    }
+}
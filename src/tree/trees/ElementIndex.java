@@ -0,0 +1,94 @@
+package tree.trees;
+
+import tree.Node;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * a multimap from an {@code element} to every {@link Node} in a {@link Tree} that holds that element.
+ *
+ * <p>the {@link Tree} keeps it up to date when nodes are added or removed so a lookup does not have to search
+ * the whole tree</p>
+ *
+ * @param <E> the type of elements held in the tree
+ * @see Tree#enableElementIndex()
+ */
+class ElementIndex<E> {
+    private final HashMap<E, List<Node<E>>> nodes = new HashMap<>();
+
+    /**
+     * adds the given node and every node under it to the index
+     *
+     * @param node the root of the subtree you want to add
+     */
+    void addSubtree(Node<E> node) {
+        Deque<Node<E>> stack = new ArrayDeque<>();
+        stack.push(node);
+        while (!stack.isEmpty()) {
+            Node<E> current = stack.pop();
+            add(current);
+            for (Node<E> child : current.getChildren()) {
+                stack.push(child);
+            }
+        }
+    }
+
+    /**
+     * removes the given node and every node under it from the index
+     *
+     * @param node the root of the subtree you want to remove
+     */
+    void removeSubtree(Node<E> node) {
+        Deque<Node<E>> stack = new ArrayDeque<>();
+        stack.push(node);
+        while (!stack.isEmpty()) {
+            Node<E> current = stack.pop();
+            remove(current);
+            for (Node<E> child : current.getChildren()) {
+                stack.push(child);
+            }
+        }
+    }
+
+    void add(Node<E> node) {
+        nodes.computeIfAbsent(node.getElement(), k -> new ArrayList<>(1)).add(node);
+    }
+
+    void remove(Node<E> node) {
+        List<Node<E>> list = nodes.get(node.getElement());
+        if (list == null) {
+            return;
+        }
+        for (int i = 0; i < list.size(); i++) {
+            if (list.get(i) == node) {
+                list.remove(i);
+                break;
+            }
+        }
+        if (list.isEmpty()) {
+            nodes.remove(node.getElement());
+        }
+    }
+
+    boolean contains(E e) {
+        return nodes.containsKey(e);
+    }
+
+    /**
+     * @param e the element you want the nodes of
+     * @return every {@link Node} that holds the element, in no particular order
+     */
+    List<Node<E>> get(E e) {
+        List<Node<E>> list = nodes.get(e);
+        return list == null ? Collections.emptyList() : list;
+    }
+
+    void clear() {
+        nodes.clear();
+    }
+}
@@ -0,0 +1,110 @@
+package tree.trees;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * this writes and reads the elements of a tree for {@link TreeCodec}, the nodes themselves are written by the codec.
+ *
+ * <p>{@link #read(DataInput)} has to read exactly the bytes {@link #write(DataOutput, Object)} wrote, because the
+ * elements are written between the other data of the tree without a length</p>
+ *
+ * @param <E> the type of the elements
+ * @see TreeCodec
+ */
+public interface ElementSerializer<E> {
+
+    ElementSerializer<Integer> INTEGER = new ElementSerializer<>() {
+        @Override
+        public void write(DataOutput out, Integer e) throws IOException {
+            out.writeInt(e);
+        }
+
+        @Override
+        public Integer read(DataInput in) throws IOException {
+            return in.readInt();
+        }
+    };
+
+    ElementSerializer<Long> LONG = new ElementSerializer<>() {
+        @Override
+        public void write(DataOutput out, Long e) throws IOException {
+            out.writeLong(e);
+        }
+
+        @Override
+        public Long read(DataInput in) throws IOException {
+            return in.readLong();
+        }
+    };
+
+    ElementSerializer<Double> DOUBLE = new ElementSerializer<>() {
+        @Override
+        public void write(DataOutput out, Double e) throws IOException {
+            out.writeDouble(e);
+        }
+
+        @Override
+        public Double read(DataInput in) throws IOException {
+            return in.readDouble();
+        }
+    };
+
+    /**
+     * it writes the length and the bytes in {@code UTF-8}, it does not use {@link DataOutput#writeUTF(String)}
+     * because that one can not write strings longer than {@code 65535} bytes
+     */
+    ElementSerializer<String> STRING = new ElementSerializer<>() {
+        @Override
+        public void write(DataOutput out, String e) throws IOException {
+            byte[] bytes = e.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        @Override
+        public String read(DataInput in) throws IOException {
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+
+    /**
+     * @param out the output
+     * @param e   the element, it is never {@code null} unless the serializer is made with {@link #nullable}
+     * @throws IOException when the output throws it
+     */
+    void write(DataOutput out, E e) throws IOException;
+
+    /**
+     * @param in the input
+     * @return the element
+     * @throws IOException when the input throws it or the element can not be read
+     */
+    E read(DataInput in) throws IOException;
+
+    /**
+     * @param serializer the serializer for the elements that are not {@code null}
+     * @param <E>        the type of the elements
+     * @return a serializer that writes a {@code boolean} before every element so the element can be {@code null}
+     */
+    static <E> ElementSerializer<E> nullable(ElementSerializer<E> serializer) {
+        return new ElementSerializer<>() {
+            @Override
+            public void write(DataOutput out, E e) throws IOException {
+                out.writeBoolean(e != null);
+                if (e != null) {
+                    serializer.write(out, e);
+                }
+            }
+
+            @Override
+            public E read(DataInput in) throws IOException {
+                return in.readBoolean() ? serializer.read(in) : null;
+            }
+        };
+    }
+}
@@ -0,0 +1,275 @@
+package tree.trees;
+
+import tree.Node;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * this gives every {@link Node} of a {@link Tree} an interval. the start and
+ * the end of the nodes in the order you meet them when you go around the tree (the start of a node, the nodes under
+ * it and then its end) get labels that only go up, so the interval of a node is inside the interval of its
+ * {@code parent} and a node is in the subtree of another node when its interval is inside the interval of the other
+ * node.
+ *
+ * <p>the labels are spread over the numbers from {@code 0} to {@link #LIMIT} with big gaps between them, so a new
+ * node usually gets two labels between the label before it and the label after it without changing other labels.
+ * when there is no space it looks at bigger and bigger aligned ranges of labels around the new node until it finds
+ * one that is not too full, the bigger the range the emptier it has to be, and spreads the labels in that range
+ * again. that way a label is changed {@code O(log n)} times on average also when every node is added at the same
+ * place, like at the bottom of a chain. a removed node only leaves space behind</p>
+ *
+ * <p>the labels are kept in a map by the node and not in the nodes, so the nodes of a tree without labels don't
+ * get bigger. a removed node is taken out of the map</p>
+ *
+ * <p>it also keeps the elements in the order of {@link Tree#toArray()} in one array, so the elements of a subtree
+ * are next to each other. the array is made again the first time it is used after the tree is changed</p>
+ *
+ * @param <E> the type of elements held in the tree
+ * @see Tree#enableIntervalLabels()
+ */
+final class IntervalLabels<E> {
+    /**
+     * all labels are smaller than this
+     */
+    static final long LIMIT = 1L << 62;
+    /**
+     * a range of {@code 2^i} labels can have at most {@code 2^i / DENSITY^i} labels in use
+     */
+    private static final double DENSITY = 1.4;
+
+    /**
+     * the start and the end of every node of the tree
+     */
+    private final IdentityHashMap<Node<E>, long[]> labels = new IdentityHashMap<>();
+    private Object[] elements = new Object[0];
+    private long[] starts = new long[0];
+    private int builtModCount;
+    private boolean built;
+
+    /**
+     * labels the whole tree again with the same space between all labels
+     */
+    void labelAll(Node<E> root) {
+        labels.clear();
+        Token token = new Token(root, false);
+        long count = 2L * root.getSubtreeSize();
+        long step = LIMIT / (count + 1);
+        long label = step;
+        do {
+            token.setLabel(label);
+            label += step;
+        } while (token.next());
+    }
+
+    /**
+     * this gives the node that was just added to the tree and every node under it labels
+     */
+    void attached(Node<E> node) {
+        long newLabels = 2L * node.getSubtreeSize();
+        Token before = new Token(node, false);
+        before.previous();
+        Token after = new Token(node, true);
+        boolean canGoOn = after.next();
+        long low = before.label();
+        long high = canGoOn ? after.label() : LIMIT;
+        if (high - low > newLabels) {
+            spread(new Token(node, false), newLabels, low, (high - low) / (newLabels + 1));
+            return;
+        }
+        long count = 1;
+        boolean canGoBack = true;
+        for (int i = 1; i < 62; i++) {
+            long rangeLow = low & -(1L << i);
+            long rangeHigh = rangeLow + (1L << i) - 1;
+            while (canGoBack) {
+                if (!before.previous()) {
+                    canGoBack = false;
+                } else if (before.label() < rangeLow) {
+                    before.next();
+                    break;
+                } else {
+                    count++;
+                }
+            }
+            while (canGoOn && after.label() <= rangeHigh) {
+                count++;
+                canGoOn = after.next();
+            }
+            long total = count + newLabels;
+            if (total <= (1L << i) / Math.pow(DENSITY, i)) {
+                spread(before, total, rangeLow - 1, (1L << i) / (total + 1));
+                return;
+            }
+        }
+        labelAll(root(node));
+    }
+
+    /**
+     * this removes the labels of the node that was just removed from the tree and of every node under it
+     */
+    void detached(Node<E> node) {
+        Deque<Node<E>> stack = new ArrayDeque<>();
+        stack.push(node);
+        while (!stack.isEmpty()) {
+            Node<E> current = stack.pop();
+            labels.remove(current);
+            for (Node<E> child : current.getChildren()) {
+                stack.push(child);
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} when the node is the ancestor or in the subtree of the ancestor, {@code false} when one
+     * of them is not in the tree
+     */
+    boolean isInSubtree(Node<E> ancestor, Node<E> node) {
+        long[] outer = labels.get(ancestor);
+        long[] inner = labels.get(node);
+        return outer != null && inner != null && outer[0] <= inner[0] && inner[1] <= outer[1];
+    }
+
+    /**
+     * @param tree the tree with the labels
+     * @param node a node of the tree
+     * @return the index in {@link #elements(Tree)} where the elements of the subtree of the node start or a
+     * negative number when the node is not in the tree
+     */
+    int startOf(Tree<E> tree, Node<E> node) {
+        update(tree);
+        long[] label = labels.get(node);
+        return label == null ? -1 : Arrays.binarySearch(starts, label[0]);
+    }
+
+    /**
+     * @return the elements of the tree in the order of {@link Tree#toArray()}, it should not be changed
+     */
+    Object[] elements(Tree<E> tree) {
+        update(tree);
+        return elements;
+    }
+
+    void clear() {
+        labels.clear();
+        elements = new Object[0];
+        starts = new long[0];
+        built = false;
+    }
+
+    private void update(Tree<E> tree) {
+        if (built && builtModCount == tree.modCount) {
+            return;
+        }
+        int size = tree.size;
+        elements = new Object[size];
+        starts = new long[size];
+        if (size > 0) {
+            int i = 0;
+            Traversal<E> traversal = tree.startTraversal(tree.root, -1);
+            try {
+                while (traversal.next()) {
+                    elements[i] = traversal.node().getElement();
+                    starts[i++] = labels.get(traversal.node())[0];
+                }
+            } finally {
+                tree.endTraversal(traversal);
+            }
+        }
+        builtModCount = tree.modCount;
+        built = true;
+    }
+
+    /**
+     * this gives {@code count} labels from the token on, the first one is {@code low + step}
+     */
+    private void spread(Token token, long count, long low, long step) {
+        long label = low;
+        for (long i = 0; i < count; i++) {
+            label += step;
+            token.setLabel(label);
+            token.next();
+        }
+    }
+
+    private static <E> Node<E> root(Node<E> node) {
+        while (node.getParent() != null) {
+            node = node.getParent();
+        }
+        return node;
+    }
+
+    /**
+     * the start or the end of a node, it moves to the start or end that comes next or before it when you go around
+     * the tree
+     */
+    private final class Token {
+        private Node<E> node;
+        private boolean end;
+
+        Token(Node<E> node, boolean end) {
+            this.node = node;
+            this.end = end;
+        }
+
+        long label() {
+            return labels.get(node)[end ? 1 : 0];
+        }
+
+        void setLabel(long label) {
+            labels.computeIfAbsent(node, n -> new long[2])[end ? 1 : 0] = label;
+        }
+
+        boolean next() {
+            if (!end) {
+                List<Node<E>> children = node.getChildren();
+                if (children.isEmpty()) {
+                    end = true;
+                } else {
+                    node = children.get(0);
+                }
+                return true;
+            }
+            Node<E> parent = node.getParent();
+            if (parent == null) {
+                return false;
+            }
+            List<Node<E>> siblings = parent.getChildren();
+            int index = node.getIndex();
+            if (index < siblings.size() - 1) {
+                node = siblings.get(index + 1);
+                end = false;
+            } else {
+                node = parent;
+            }
+            return true;
+        }
+
+        boolean previous() {
+            if (end) {
+                List<Node<E>> children = node.getChildren();
+                if (children.isEmpty()) {
+                    end = false;
+                } else {
+                    node = children.get(children.size() - 1);
+                }
+                return true;
+            }
+            Node<E> parent = node.getParent();
+            if (parent == null) {
+                return false;
+            }
+            int index = node.getIndex();
+            if (index > 0) {
+                node = parent.getChildren().get(index - 1);
+                end = true;
+            } else {
+                node = parent;
+            }
+            return true;
+        }
+    }
+}
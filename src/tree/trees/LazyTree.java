@@ -0,0 +1,533 @@
+package tree.trees;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * a tree that can only be read and that gets its nodes from a {@link NodeSource} when they are used, so it can be
+ * a lot bigger than the memory. the children of a node are asked from the source the first time the node is
+ * used to go down, and the elements of the children are asked with them.
+ *
+ * <p>the tree keeps at most {@code capacity} loaded nodes. the nodes with loaded children are kept in the order they
+ * were last used and when there are too many loaded nodes the children of the node that was used the longest time
+ * ago are removed with everything under them, they are loaded again when they are used again. the {@code pointer}
+ * and the nodes above it are never removed</p>
+ *
+ * <p>the methods that search the whole tree like {@link #contains(Object)}, {@link #getSize()} and
+ * {@link #toString()} load every node, but they only keep the nodes on the path they are on, so they also work
+ * when the tree does not fit in the memory. every method that changes the tree throws an
+ * {@link UnsupportedOperationException}</p>
+ *
+ * @param <K> the type of the keys of the nodes in the {@link NodeSource}
+ * @param <E> the type of elements held in this tree
+ * @see NodeSource
+ * @see MappedTree
+ */
+public class LazyTree<K, E> implements PointerTree<E> {
+    private final NodeSource<K, E> source;
+    private final int capacity;
+    private final LinkedHashMap<LazyNode<K, E>, Boolean> loaded = new LinkedHashMap<>(16, 0.75f, true);
+    private final LazyNode<K, E> root;
+    private int loadedNodes;
+    private int size = -1;
+    private LazyNode<K, E> pointer;
+
+    /**
+     * @param source   where the nodes come from
+     * @param capacity the number of nodes that can be loaded at the same time, the nodes on the path to the
+     *                 {@code pointer} can go over it
+     */
+    public LazyTree(NodeSource<K, E> source, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.source = source;
+        this.capacity = capacity;
+        K rootKey = source.getRoot();
+        root = rootKey == null ? null : new LazyNode<>(rootKey, source.getElement(rootKey), null, -1);
+        pointer = root;
+    }
+
+    /**
+     * @return the number of nodes that are loaded now, the {@code root} not included
+     */
+    public int getLoadedNodes() {
+        return loadedNodes;
+    }
+
+    /**
+     * @return the key of the node of the {@code pointer} in the {@link NodeSource} or {@code null} when the tree is
+     * empty
+     */
+    public K getKeyAtPointer() {
+        return pointer == null ? null : pointer.key;
+    }
+
+    /**
+     * this loads the children of the node when they are not loaded and marks them as used
+     */
+    private List<LazyNode<K, E>> children(LazyNode<K, E> node) {
+        List<LazyNode<K, E>> children = node.children;
+        if (children != null) {
+            loaded.get(node);
+            return children;
+        }
+        List<K> keys = source.getChildren(node.key);
+        if (keys.isEmpty()) {
+            children = Collections.emptyList();
+        } else {
+            children = new ArrayList<>(keys.size());
+            for (K key : keys) {
+                children.add(new LazyNode<>(key, source.getElement(key), node, children.size()));
+            }
+        }
+        node.children = children;
+        loaded.put(node, Boolean.TRUE);
+        loadedNodes += children.size();
+        if (loadedNodes > capacity) {
+            evict(node);
+        }
+        return children;
+    }
+
+    /**
+     * this removes the children of the nodes that were used the longest time ago until there are not too many loaded
+     * nodes, it does not remove the node that is loaded now and the nodes on the path to the {@code pointer}
+     */
+    private void evict(LazyNode<K, E> loading) {
+        Set<LazyNode<K, E>> keep = Collections.newSetFromMap(new IdentityHashMap<>());
+        keep.add(loading);
+        for (LazyNode<K, E> node = pointer; node != null; node = node.parent) {
+            keep.add(node);
+        }
+        Iterator<LazyNode<K, E>> iterator = loaded.keySet().iterator();
+        List<LazyNode<K, E>> evicted = new ArrayList<>();
+        int toRemove = loadedNodes - capacity;
+        while (toRemove > 0 && iterator.hasNext()) {
+            LazyNode<K, E> node = iterator.next();
+            if (!keep.contains(node) && node.children != null) {
+                evicted.add(node);
+                toRemove -= node.children.size();
+            }
+        }
+        for (LazyNode<K, E> node : evicted) {
+            unload(node);
+        }
+    }
+
+    /**
+     * this removes the children of the node and everything under them from the cache
+     */
+    private void unload(LazyNode<K, E> node) {
+        List<LazyNode<K, E>> stack = new ArrayList<>();
+        stack.add(node);
+        while (!stack.isEmpty()) {
+            LazyNode<K, E> current = stack.remove(stack.size() - 1);
+            if (current.children == null) {
+                continue;
+            }
+            loaded.remove(current);
+            loadedNodes -= current.children.size();
+            for (LazyNode<K, E> child : current.children) {
+                if (child.children != null) {
+                    stack.add(child);
+                }
+            }
+            current.children = null;
+        }
+    }
+
+    /**
+     * @throws UnsupportedOperationException a {@link LazyTree} can not be changed
+     */
+    @Override
+    public void insert(E e, boolean movePointer) {
+        throw new UnsupportedOperationException("a LazyTree can not be changed");
+    }
+
+    /**
+     * @throws UnsupportedOperationException a {@link LazyTree} can not be changed
+     */
+    @Override
+    public void insert(E e) {
+        throw new UnsupportedOperationException("a LazyTree can not be changed");
+    }
+
+    @Override
+    public boolean movePointerUp() {
+        if (pointer == null || pointer.parent == null) {
+            return false;
+        }
+        pointer = pointer.parent;
+        return true;
+    }
+
+    /**
+     * this loads the children of the {@code pointer} when they are not loaded
+     */
+    @Override
+    public boolean movePointerDown(E e) {
+        if (pointer == null) {
+            return false;
+        }
+        for (LazyNode<K, E> child : children(pointer)) {
+            if (Objects.equals(child.element, e)) {
+                pointer = child;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * this loads the children of the {@code pointer} when they are not loaded
+     */
+    @Override
+    public boolean movePointerDown(int i) {
+        if (pointer == null || i < 0) {
+            return false;
+        }
+        List<LazyNode<K, E>> children = children(pointer);
+        if (i >= children.size()) {
+            return false;
+        }
+        pointer = children.get(i);
+        return true;
+    }
+
+    @Override
+    public boolean movePointer(int index) {
+        if (index == -1) {
+            return movePointerUp();
+        }
+        return movePointerDown(index);
+    }
+
+    @Override
+    public boolean setPointerToRelativePad(int[] relativePad) {
+        for (int j : relativePad) {
+            if (!movePointer(j)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean setPointerToRelativePad(List<Integer> relativePad) {
+        for (int j : relativePad) {
+            if (!movePointer(j)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean setPointerToAbsolutePad(int[] absolutePath) {
+        setPointerToRoot();
+        return setPointerToRelativePad(absolutePath);
+    }
+
+    @Override
+    public boolean setPointerToAbsolutePad(List<Integer> absolutePath) {
+        setPointerToRoot();
+        return setPointerToRelativePad(absolutePath);
+    }
+
+    @Override
+    public List<Integer> getAbsolutePadToPointer() {
+        LinkedList<Integer> pad = new LinkedList<>();
+        for (LazyNode<K, E> node = pointer; node != null && node.parent != null; node = node.parent) {
+            pad.addFirst(node.index);
+        }
+        return pad;
+    }
+
+    @Override
+    public void setPointerToRoot() {
+        pointer = root;
+    }
+
+    /**
+     * @return the element in the pointer or {@code null} when the tree is empty
+     */
+    @Override
+    public E getAtPointer() {
+        return pointer == null ? null : pointer.element;
+    }
+
+    @Override
+    public E getElementAtRelativePath(int[] relativePad) {
+        LazyNode<K, E> currentPointer = pointer;
+        setPointerToRelativePad(relativePad);
+        E e = getAtPointer();
+        pointer = currentPointer;
+        return e;
+    }
+
+    @Override
+    public E getElementAtAbsolutePath(int[] absolutePath) {
+        LazyNode<K, E> currentPointer = pointer;
+        setPointerToAbsolutePad(absolutePath);
+        E e = getAtPointer();
+        pointer = currentPointer;
+        return e;
+    }
+
+    /**
+     * this loads the nodes until it finds the element
+     */
+    @Override
+    public List<Integer> getAbsolutePadToElement(E e) {
+        Walk walk = new Walk();
+        while (walk.next()) {
+            if (Objects.equals(walk.node().element, e)) {
+                return walk.path();
+            }
+        }
+        return new LinkedList<>();
+    }
+
+    /**
+     * this loads every node
+     */
+    @Override
+    public List<List<Integer>> getAbsolutePatsToElement(E e) {
+        List<List<Integer>> pats = new ArrayList<>();
+        Walk walk = new Walk();
+        while (walk.next()) {
+            if (Objects.equals(walk.node().element, e)) {
+                pats.add(walk.path());
+            }
+        }
+        return pats;
+    }
+
+    @Override
+    public boolean contains(E e) {
+        Walk walk = new Walk();
+        while (walk.next()) {
+            if (Objects.equals(walk.node().element, e)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @throws UnsupportedOperationException a {@link LazyTree} can not be changed
+     */
+    @Override
+    public boolean remove(E e) {
+        throw new UnsupportedOperationException("a LazyTree can not be changed");
+    }
+
+    /**
+     * @throws UnsupportedOperationException a {@link LazyTree} can not be changed
+     */
+    @Override
+    public boolean removeNodeAtRelativePath(List<Integer> path) {
+        throw new UnsupportedOperationException("a LazyTree can not be changed");
+    }
+
+    /**
+     * @throws UnsupportedOperationException a {@link LazyTree} can not be changed
+     */
+    @Override
+    public boolean removeNodeAtAbsolutePathPath(List<Integer> path) {
+        throw new UnsupportedOperationException("a LazyTree can not be changed");
+    }
+
+    /**
+     * the first time this loads every node, after that it remembers the size
+     */
+    @Override
+    public int getSize() {
+        if (size < 0) {
+            int count = 0;
+            Walk walk = new Walk();
+            while (walk.next()) {
+                count++;
+            }
+            size = count;
+        }
+        return size;
+    }
+
+    /**
+     * @return every element where every element comes before the elements under it, every node is loaded
+     */
+    @Override
+    public List<E> toList() {
+        List<E> list = new ArrayList<>();
+        for (E e : this) {
+            list.add(e);
+        }
+        return list;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E[] toArray() {
+        return (E[]) toList().toArray();
+    }
+
+    /**
+     * @throws UnsupportedOperationException a {@link LazyTree} can not be changed
+     */
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException("a LazyTree can not be changed");
+    }
+
+    /**
+     * @return an {@link Iterator} in the order of {@link #toArray()} that loads the nodes when it gets to them
+     */
+    @Override
+    public Iterator<E> iterator() {
+        Walk walk = new Walk();
+        return new Iterator<>() {
+            private boolean hasNext = walk.next();
+
+            @Override
+            public boolean hasNext() {
+                return hasNext;
+            }
+
+            @Override
+            public E next() {
+                if (!hasNext) {
+                    throw new NoSuchElementException();
+                }
+                E e = walk.node().element;
+                hasNext = walk.next();
+                return e;
+            }
+        };
+    }
+
+    /**
+     * it returns the {@code String} to a tree structure like {@link Tree#toString()}, it loads every node
+     *
+     * @return {@code String}
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        Walk walk = new Walk();
+        if (!walk.next()) {
+            return sb.append("null\n").toString();
+        }
+        sb.append(walk.node().element).append("\n");
+        StringBuilder prefix = new StringBuilder();
+        while (walk.next()) {
+            int depth = walk.depth();
+            prefix.setLength(0);
+            prefix.append("    ");
+            for (int level = 0; level < depth - 1; level++) {
+                prefix.append(walk.isLast(level) ? "    " : "│   ");
+            }
+            sb.append(prefix).append(walk.isLast(depth - 1) ? "└── " : "├── ").append(walk.node().element)
+                    .append("\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * a node of a {@link LazyTree}, {@code children} is {@code null} when they are not loaded
+     */
+    private static final class LazyNode<K, E> {
+        private final K key;
+        private final E element;
+        private final LazyNode<K, E> parent;
+        private final int index;
+        private List<LazyNode<K, E>> children;
+
+        LazyNode(K key, E element, LazyNode<K, E> parent, int index) {
+            this.key = key;
+            this.element = element;
+            this.parent = parent;
+            this.index = index;
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <K, E> List<LazyNode<K, E>>[] newLevels(int length) {
+        return new List[length];
+    }
+
+    /**
+     * it goes through the nodes from the {@code root} where every node comes before its children. it keeps the lists
+     * of children on its path, so it can go on when they are removed from the cache
+     */
+    private final class Walk {
+        private List<LazyNode<K, E>>[] levels = newLevels(16);
+        private int[] indexes = new int[16];
+        private int depth;
+        private LazyNode<K, E> current;
+        private boolean started;
+
+        boolean next() {
+            if (!started) {
+                started = true;
+                current = root;
+                return current != null;
+            }
+            if (current == null) {
+                return false;
+            }
+            List<LazyNode<K, E>> children = children(current);
+            if (!children.isEmpty()) {
+                if (depth == levels.length) {
+                    levels = Arrays.copyOf(levels, depth * 2);
+                    indexes = Arrays.copyOf(indexes, depth * 2);
+                }
+                levels[depth] = children;
+                indexes[depth++] = 0;
+                current = children.get(0);
+                return true;
+            }
+            while (depth > 0) {
+                int next = indexes[depth - 1] + 1;
+                if (next < levels[depth - 1].size()) {
+                    indexes[depth - 1] = next;
+                    current = levels[depth - 1].get(next);
+                    return true;
+                }
+                levels[--depth] = null;
+            }
+            current = null;
+            return false;
+        }
+
+        LazyNode<K, E> node() {
+            return current;
+        }
+
+        int depth() {
+            return depth;
+        }
+
+        boolean isLast(int level) {
+            return indexes[level] == levels[level].size() - 1;
+        }
+
+        List<Integer> path() {
+            LinkedList<Integer> path = new LinkedList<>();
+            for (int i = 0; i < depth; i++) {
+                path.add(indexes[i]);
+            }
+            return path;
+        }
+    }
+}
@@ -0,0 +1,586 @@
+package tree.trees;
+
+import tree.Node;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StreamCorruptedException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * a tree that can only be read and that works directly on a snapshot file made with
+ * {@link #writeSnapshot(Tree, ElementSerializer, Path)}. the file is mapped in memory, so opening a tree does not
+ * read the nodes and more processes that open the same file share the same pages of the file.
+ *
+ * <p>in the file every node has a number, the number of the node in the order of {@link Tree#toArray()}, so the
+ * {@code root} is {@code 0}. the file has these sections, every section is mapped on its own:</p>
+ * <ul>
+ *     <li>the {@code parent} of every node ({@code -1} for the {@code root})</li>
+ *     <li>where the children of every node start in the child table, the next start is the end</li>
+ *     <li>the child table with the children of every node after each other</li>
+ *     <li>the {@code index} of every node in the children of its {@code parent}</li>
+ *     <li>where the element of every node starts in the element data, the next start is the end</li>
+ *     <li>the element data written by an {@link ElementSerializer}</li>
+ * </ul>
+ *
+ * <p>an element is only read when it is asked. to search an element it is written with the
+ * {@link ElementSerializer} and the bytes are compared, so no element has to be read. that only works when the
+ * serializer writes equal elements with the same bytes, like the serializers in {@link ElementSerializer}.
+ * because the numbers are in the order of {@link Tree#toArray()} a search just goes through the numbers</p>
+ *
+ * <p>every method that changes the tree throws an {@link UnsupportedOperationException}. only the {@code pointer}
+ * can be moved, so more threads can use the same file with their own {@link MappedTree}. a section can not be bigger
+ * than {@link Integer#MAX_VALUE} bytes</p>
+ *
+ * @param <E> the type of elements held in this tree
+ * @see TreeCodec
+ */
+public class MappedTree<E> implements PointerTree<E> {
+    /**
+     * the first bytes of a snapshot, {@code "TRSN"} in ASCII
+     */
+    public static final int MAGIC = 0x5452534E;
+    public static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+
+    private final ElementSerializer<E> serializer;
+    private final int size;
+    private final IntBuffer parents;
+    private final IntBuffer childStarts;
+    private final IntBuffer childTable;
+    private final IntBuffer indexes;
+    private final IntBuffer elementStarts;
+    private final ByteBuffer elements;
+    private int pointer;
+
+    private MappedTree(ElementSerializer<E> serializer, int size, IntBuffer parents, IntBuffer childStarts,
+                       IntBuffer childTable, IntBuffer indexes, IntBuffer elementStarts, ByteBuffer elements) {
+        this.serializer = serializer;
+        this.size = size;
+        this.parents = parents;
+        this.childStarts = childStarts;
+        this.childTable = childTable;
+        this.indexes = indexes;
+        this.elementStarts = elementStarts;
+        this.elements = elements;
+    }
+
+    /**
+     * this maps the file, it only reads the header so it takes the same time for every size
+     *
+     * @param file       a file made with {@link #writeSnapshot(Tree, ElementSerializer, Path)}
+     * @param serializer the serializer the file was written with
+     * @param <E>        the type of the elements
+     * @return the tree with the {@code pointer} at the {@code root}
+     * @throws IOException when the file can not be read or is not a snapshot
+     */
+    public static <E> MappedTree<E> open(Path file, ElementSerializer<E> serializer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+            }
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+                throw new StreamCorruptedException("the file is not a tree snapshot");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new StreamCorruptedException("unknown version " + version);
+            }
+            int size = header.getInt();
+            int dataLength = header.getInt();
+            long[] offsets = sectionOffsets(size);
+            if (size < 0 || dataLength < 0 || channel.size() < offsets[5] + dataLength) {
+                throw new StreamCorruptedException("the snapshot is not complete");
+            }
+            return new MappedTree<>(serializer, size,
+                    mapInts(channel, offsets[0], size),
+                    mapInts(channel, offsets[1], size == 0 ? 0 : size + 1),
+                    mapInts(channel, offsets[2], Math.max(size - 1, 0)),
+                    mapInts(channel, offsets[3], size),
+                    mapInts(channel, offsets[4], size == 0 ? 0 : size + 1),
+                    channel.map(FileChannel.MapMode.READ_ONLY, offsets[5], dataLength));
+        }
+    }
+
+    /**
+     * this writes the tree to a snapshot file, the file is replaced when it exists
+     *
+     * @param tree       the tree you want to write
+     * @param serializer the serializer for the elements
+     * @param file       the file
+     * @param <E>        the type of the elements
+     * @throws IOException when the file can not be written or a section is too big
+     */
+    public static <E> void writeSnapshot(Tree<E> tree, ElementSerializer<? super E> serializer, Path file)
+            throws IOException {
+        int size = tree.size;
+        long[] offsets = sectionOffsets(size);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.READ, StandardOpenOption.TRUNCATE_EXISTING)) {
+            int dataLength = 0;
+            if (size > 0) {
+                dataLength = writeSections(tree, serializer, channel, offsets);
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putInt(size).putInt(dataLength).flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+        }
+    }
+
+    private static <E> int writeSections(Tree<E> tree, ElementSerializer<? super E> serializer,
+                                         FileChannel channel, long[] offsets) throws IOException {
+        int size = tree.size;
+        IntBuffer parents = mapWritableInts(channel, offsets[0], size);
+        IntBuffer childStarts = mapWritableInts(channel, offsets[1], size + 1);
+        IntBuffer childTable = mapWritableInts(channel, offsets[2], size - 1);
+        IntBuffer indexes = mapWritableInts(channel, offsets[3], size);
+        IntBuffer elementStarts = mapWritableInts(channel, offsets[4], size + 1);
+        channel.position(offsets[5]);
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel),
+                1 << 16));
+        int[] path = new int[16];
+        int number = 0;
+        childStarts.put(0, 0);
+        Traversal<E> traversal = tree.startTraversal(tree.root, -1);
+        try {
+            while (traversal.next()) {
+                Node<E> node = traversal.node();
+                int depth = traversal.depth();
+                if (depth == path.length) {
+                    path = Arrays.copyOf(path, depth * 2);
+                }
+                path[depth] = number;
+                if (depth == 0) {
+                    parents.put(number, -1);
+                    indexes.put(number, -1);
+                } else {
+                    int parent = path[depth - 1];
+                    int index = traversal.indexAt(depth - 1);
+                    parents.put(number, parent);
+                    indexes.put(number, index);
+                    childTable.put(childStarts.get(parent) + index, number);
+                }
+                childStarts.put(number + 1, childStarts.get(number) + node.getChildren().size());
+                elementStarts.put(number, data.size());
+                serializer.write(data, node.getElement());
+                if (data.size() == Integer.MAX_VALUE) {
+                    throw new IOException("the elements are too big for a snapshot");
+                }
+                number++;
+            }
+        } finally {
+            tree.endTraversal(traversal);
+        }
+        data.flush();
+        elementStarts.put(size, data.size());
+        return data.size();
+    }
+
+    /**
+     * @return the start of every section and the start of the element data as last
+     */
+    private static long[] sectionOffsets(int size) {
+        long[] offsets = new long[6];
+        offsets[0] = HEADER_SIZE;
+        offsets[1] = offsets[0] + 4L * size;
+        offsets[2] = offsets[1] + (size == 0 ? 0 : 4L * (size + 1));
+        offsets[3] = offsets[2] + 4L * Math.max(size - 1, 0);
+        offsets[4] = offsets[3] + 4L * size;
+        offsets[5] = offsets[4] + (size == 0 ? 0 : 4L * (size + 1));
+        return offsets;
+    }
+
+    private static IntBuffer mapInts(FileChannel channel, long offset, int count) throws IOException {
+        return map(channel, FileChannel.MapMode.READ_ONLY, offset, count).asIntBuffer();
+    }
+
+    private static IntBuffer mapWritableInts(FileChannel channel, long offset, int count) throws IOException {
+        return map(channel, FileChannel.MapMode.READ_WRITE, offset, count).asIntBuffer();
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, FileChannel.MapMode mode, long offset, int count)
+            throws IOException {
+        if (4L * count > Integer.MAX_VALUE) {
+            throw new IOException("the tree is too big for a snapshot");
+        }
+        return channel.map(mode, offset, 4L * count);
+    }
+
+    private E elementOf(int node) {
+        int start = elementStarts.get(node);
+        try {
+            return serializer.read(new DataInputStream(new ByteBufferInputStream(
+                    elements.slice(start, elementStarts.get(node + 1) - start))));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return the element written by the serializer
+     */
+    private byte[] bytesOf(E e) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            serializer.write(new DataOutputStream(bytes), e);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        return bytes.toByteArray();
+    }
+
+    private boolean hasBytes(int node, byte[] bytes) {
+        int start = elementStarts.get(node);
+        if (elementStarts.get(node + 1) - start != bytes.length) {
+            return false;
+        }
+        return elements.slice(start, bytes.length).equals(ByteBuffer.wrap(bytes));
+    }
+
+    private int childCount(int node) {
+        return childStarts.get(node + 1) - childStarts.get(node);
+    }
+
+    private int childAt(int node, int i) {
+        if (i < 0 || i >= childCount(node)) {
+            return -1;
+        }
+        return childTable.get(childStarts.get(node) + i);
+    }
+
+    private List<Integer> pathTo(int node) {
+        LinkedList<Integer> path = new LinkedList<>();
+        for (; node != 0; node = parents.get(node)) {
+            path.addFirst(indexes.get(node));
+        }
+        return path;
+    }
+
+    /**
+     * @return the first node from {@code from} that has the element or {@code -1}
+     */
+    private int find(byte[] bytes, int from) {
+        for (int node = from; node < size; node++) {
+            if (hasBytes(node, bytes)) {
+                return node;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @throws UnsupportedOperationException a {@link MappedTree} can not be changed
+     */
+    @Override
+    public void insert(E e, boolean movePointer) {
+        throw new UnsupportedOperationException("a MappedTree can not be changed");
+    }
+
+    /**
+     * @throws UnsupportedOperationException a {@link MappedTree} can not be changed
+     */
+    @Override
+    public void insert(E e) {
+        throw new UnsupportedOperationException("a MappedTree can not be changed");
+    }
+
+    @Override
+    public boolean movePointerUp() {
+        if (pointer == 0) {
+            return false;
+        }
+        pointer = parents.get(pointer);
+        return true;
+    }
+
+    @Override
+    public boolean movePointerDown(E e) {
+        if (size == 0) {
+            return false;
+        }
+        byte[] bytes = bytesOf(e);
+        for (int i = childStarts.get(pointer); i < childStarts.get(pointer + 1); i++) {
+            int child = childTable.get(i);
+            if (hasBytes(child, bytes)) {
+                pointer = child;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean movePointerDown(int i) {
+        if (size == 0) {
+            return false;
+        }
+        int child = childAt(pointer, i);
+        if (child < 0) {
+            return false;
+        }
+        pointer = child;
+        return true;
+    }
+
+    @Override
+    public boolean movePointer(int index) {
+        if (index == -1) {
+            return movePointerUp();
+        }
+        return movePointerDown(index);
+    }
+
+    @Override
+    public boolean setPointerToRelativePad(int[] relativePad) {
+        for (int j : relativePad) {
+            if (!movePointer(j)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean setPointerToRelativePad(List<Integer> relativePad) {
+        for (int j : relativePad) {
+            if (!movePointer(j)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean setPointerToAbsolutePad(int[] absolutePath) {
+        setPointerToRoot();
+        return setPointerToRelativePad(absolutePath);
+    }
+
+    @Override
+    public boolean setPointerToAbsolutePad(List<Integer> absolutePath) {
+        setPointerToRoot();
+        return setPointerToRelativePad(absolutePath);
+    }
+
+    @Override
+    public List<Integer> getAbsolutePadToPointer() {
+        return pathTo(pointer);
+    }
+
+    @Override
+    public void setPointerToRoot() {
+        pointer = 0;
+    }
+
+    /**
+     * @return the element in the pointer or {@code null} when the tree is empty
+     */
+    @Override
+    public E getAtPointer() {
+        return size == 0 ? null : elementOf(pointer);
+    }
+
+    @Override
+    public E getElementAtRelativePath(int[] relativePad) {
+        int currentPointer = pointer;
+        setPointerToRelativePad(relativePad);
+        E e = getAtPointer();
+        pointer = currentPointer;
+        return e;
+    }
+
+    @Override
+    public E getElementAtAbsolutePath(int[] absolutePath) {
+        int currentPointer = pointer;
+        setPointerToAbsolutePad(absolutePath);
+        E e = getAtPointer();
+        pointer = currentPointer;
+        return e;
+    }
+
+    @Override
+    public List<Integer> getAbsolutePadToElement(E e) {
+        int node = find(bytesOf(e), 0);
+        return node < 0 ? new LinkedList<>() : pathTo(node);
+    }
+
+    @Override
+    public List<List<Integer>> getAbsolutePatsToElement(E e) {
+        byte[] bytes = bytesOf(e);
+        List<List<Integer>> pats = new ArrayList<>();
+        for (int node = find(bytes, 0); node >= 0; node = find(bytes, node + 1)) {
+            pats.add(pathTo(node));
+        }
+        return pats;
+    }
+
+    @Override
+    public boolean contains(E e) {
+        return find(bytesOf(e), 0) >= 0;
+    }
+
+    /**
+     * @throws UnsupportedOperationException a {@link MappedTree} can not be changed
+     */
+    @Override
+    public boolean remove(E e) {
+        throw new UnsupportedOperationException("a MappedTree can not be changed");
+    }
+
+    /**
+     * @throws UnsupportedOperationException a {@link MappedTree} can not be changed
+     */
+    @Override
+    public boolean removeNodeAtRelativePath(List<Integer> path) {
+        throw new UnsupportedOperationException("a MappedTree can not be changed");
+    }
+
+    /**
+     * @throws UnsupportedOperationException a {@link MappedTree} can not be changed
+     */
+    @Override
+    public boolean removeNodeAtAbsolutePathPath(List<Integer> path) {
+        throw new UnsupportedOperationException("a MappedTree can not be changed");
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return every element in the order of {@link #toArray()}, they are all read
+     */
+    @Override
+    public List<E> toList() {
+        List<E> list = new ArrayList<>(size);
+        for (int node = 0; node < size; node++) {
+            list.add(elementOf(node));
+        }
+        return list;
+    }
+
+    /**
+     * @return every element where every element comes before the elements under it, they are all read
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public E[] toArray() {
+        return (E[]) toList().toArray();
+    }
+
+    /**
+     * @throws UnsupportedOperationException a {@link MappedTree} can not be changed
+     */
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException("a MappedTree can not be changed");
+    }
+
+    /**
+     * @return an {@link Iterator} in the order of {@link #toArray()} that reads every element when it gets to it
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public E next() {
+                if (next >= size) {
+                    throw new NoSuchElementException();
+                }
+                return elementOf(next++);
+            }
+        };
+    }
+
+    /**
+     * it returns the {@code String} to a tree structure like {@link Tree#toString()}, it reads every element
+     *
+     * @return {@code String}
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        if (size == 0) {
+            return sb.append("null\n").toString();
+        }
+        sb.append(elementOf(0)).append("\n");
+        StringBuilder prefix = new StringBuilder();
+        int[] path = new int[16];
+        int depth = 0;
+        for (int node = 1; node < size; node++) {
+            int parent = parents.get(node);
+            while (path[depth] != parent) {
+                depth--;
+            }
+            prefix.setLength(4 * depth);
+            prefix.append(parent == 0 || isLastChild(parent) ? "    " : "│   ");
+            sb.append(prefix).append(isLastChild(node) ? "└── " : "├── ").append(elementOf(node)).append("\n");
+            if (++depth == path.length) {
+                path = Arrays.copyOf(path, depth * 2);
+            }
+            path[depth] = node;
+        }
+        return sb.toString();
+    }
+
+    private boolean isLastChild(int node) {
+        return indexes.get(node) == childCount(parents.get(node)) - 1;
+    }
+
+    /**
+     * an {@link InputStream} that reads what is left in a {@link ByteBuffer}
+     */
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            length = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, length);
+            return length;
+        }
+    }
+}
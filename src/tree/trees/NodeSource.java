@@ -0,0 +1,59 @@
+package tree.trees;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * where a {@link LazyTree} gets its nodes from, for example a file, a key-value store or a function that makes the
+ * nodes. every node has a key, the tree asks the children of a key only when they are used and it can ask them
+ * again after it removed them from its cache, so the same key should always give the same element and children.
+ *
+ * @param <K> the type of the keys of the nodes
+ * @param <E> the type of elements held in the tree
+ * @see LazyTree
+ */
+public interface NodeSource<K, E> {
+
+    /**
+     * @return the key of the {@code root} or {@code null} when the tree is empty
+     */
+    K getRoot();
+
+    /**
+     * @param key the key of a node
+     * @return the element of the node
+     */
+    E getElement(K key);
+
+    /**
+     * @param key the key of a node
+     * @return the keys of the children of the node in the order of their {@code index}
+     */
+    List<K> getChildren(K key);
+
+    /**
+     * @param root     the key of the {@code root}
+     * @param element  it gives the element of a key
+     * @param children it gives the keys of the children of a key
+     * @return a source that uses the functions
+     */
+    static <K, E> NodeSource<K, E> of(K root, Function<? super K, ? extends E> element,
+                                      Function<? super K, ? extends List<K>> children) {
+        return new NodeSource<>() {
+            @Override
+            public K getRoot() {
+                return root;
+            }
+
+            @Override
+            public E getElement(K key) {
+                return element.apply(key);
+            }
+
+            @Override
+            public List<K> getChildren(K key) {
+                return children.apply(key);
+            }
+        };
+    }
+}
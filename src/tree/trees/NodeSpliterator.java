@@ -0,0 +1,112 @@
+package tree.trees;
+
+import tree.Node;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * a {@link Spliterator} over the elements of a {@link Tree} in the order of {@link Tree#toArray()}.
+ *
+ * <p>it holds a list of nodes of which the whole subtree still has to be visited. it splits at the children of the
+ * nodes: when it has only one node left it takes the element of that node and keeps its children instead, it keeps
+ * doing that through the nodes with one child until it has two nodes or more, so a tree that starts with a chain is
+ * still split at the first node with more children. then it gives away the elements it took and the first children
+ * until about half of the elements are given away. because every {@link Node} knows
+ * the size of its subtree the sizes are exact, so it is {@link #SIZED} and {@link #SUBSIZED}</p>
+ *
+ * @param <E> the type of elements held in the tree
+ * @see Tree#spliterator()
+ */
+final class NodeSpliterator<E> implements Spliterator<E> {
+    private final Tree<E> tree;
+    private final int expectedModCount;
+    private final ArrayDeque<Node<E>> nodes;
+    /**
+     * the elements of the nodes it took the children of, they come before the nodes
+     */
+    private final ArrayList<E> heads;
+    private int nextHead;
+    private long size;
+
+    NodeSpliterator(Tree<E> tree, Node<E> node) {
+        this(tree, new ArrayDeque<>(), new ArrayList<>(), 0, tree.modCount);
+        if (node != null) {
+            nodes.add(node);
+            // this calculates every changed size now, so the parts that are split off only read them
+            size = node.getSubtreeSize();
+        }
+    }
+
+    private NodeSpliterator(Tree<E> tree, ArrayDeque<Node<E>> nodes, ArrayList<E> heads, long size,
+                            int expectedModCount) {
+        this.tree = tree;
+        this.nodes = nodes;
+        this.heads = heads;
+        this.size = size;
+        this.expectedModCount = expectedModCount;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super E> action) {
+        E e;
+        if (nextHead < heads.size()) {
+            e = heads.get(nextHead);
+            heads.set(nextHead++, null);
+        } else {
+            Node<E> node = nodes.pollFirst();
+            if (node == null) {
+                return false;
+            }
+            for (int i = node.getChildren().size() - 1; i >= 0; i--) {
+                nodes.addFirst(node.getChildren().get(i));
+            }
+            e = node.getElement();
+        }
+        size--;
+        action.accept(e);
+        if (tree.modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+        return true;
+    }
+
+    @Override
+    public Spliterator<E> trySplit() {
+        while (nodes.size() == 1 && !nodes.peekFirst().getChildren().isEmpty()) {
+            Node<E> node = nodes.pollFirst();
+            heads.add(node.getElement());
+            nodes.addAll(node.getChildren());
+        }
+        if (nodes.size() < 2) {
+            return null;
+        }
+        ArrayList<E> prefixHeads = new ArrayList<>(heads.subList(nextHead, heads.size()));
+        heads.clear();
+        nextHead = 0;
+        ArrayDeque<Node<E>> prefix = new ArrayDeque<>();
+        long prefixSize = prefixHeads.size();
+        long half = size / 2;
+        do {
+            Node<E> node = nodes.pollFirst();
+            prefix.addLast(node);
+            prefixSize += node.getSubtreeSize();
+        } while (prefixSize < half && nodes.size() > 1);
+        Spliterator<E> split = new NodeSpliterator<>(tree, prefix, prefixHeads, prefixSize, expectedModCount);
+        size -= prefixSize;
+        return split;
+    }
+
+    @Override
+    public long estimateSize() {
+        return size;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | SIZED | SUBSIZED;
+    }
+}
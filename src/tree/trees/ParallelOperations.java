@@ -0,0 +1,198 @@
+package tree.trees;
+
+import tree.Node;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * the bulk operations of {@link Tree} that use more threads with a {@link ForkJoinPool}.
+ *
+ * <p>a task gets a list of nodes of which it has to do the whole subtree. when the subtrees together are bigger
+ * than {@link #THRESHOLD} it splits the list in two parts with about the same number of nodes, it gives the smaller
+ * part to a new task and goes on with the bigger part itself. when it only has one node it does that node itself and
+ * goes on with its children. because it splits on the size of the subtrees and not on the number of children a tree
+ * that is not balanced is still divided evenly, and because a task only gives away the smaller part the tasks are
+ * never nested deeper than the logarithm of the size, also on a deep tree. small parts are done with a
+ * {@link Traversal} so there is no recursion in the threads</p>
+ *
+ * <p>the sizes of the subtrees have to be calculated before a task starts and the tree should not be changed while
+ * an operation runs</p>
+ *
+ * @see Tree#parallelForEach(Consumer)
+ */
+final class ParallelOperations {
+    /**
+     * the number of nodes a task does without splitting
+     */
+    static final int THRESHOLD = 1 << 12;
+
+    private ParallelOperations() {
+    }
+
+    static <E> void forEach(ForkJoinPool pool, Node<E> root, Consumer<? super E> action) {
+        pool.invoke(new CollectTask<E, Void>(List.of(root), () -> null,
+                (nothing, node) -> action.accept(node.getElement()), (nothing, other) -> null));
+    }
+
+    @SuppressWarnings("unchecked")
+    static <E, R> R reduce(ForkJoinPool pool, Node<E> root, R identity, Function<? super E, ? extends R> mapper,
+                           BinaryOperator<R> combiner) {
+        Object[] result = pool.invoke(new CollectTask<E, Object[]>(List.of(root), () -> new Object[]{identity},
+                (holder, node) -> holder[0] = combiner.apply((R) holder[0], mapper.apply(node.getElement())),
+                (holder, other) -> {
+                    holder[0] = combiner.apply((R) holder[0], (R) other[0]);
+                    return holder;
+                }));
+        return (R) result[0];
+    }
+
+    static <E> List<Node<E>> findAll(ForkJoinPool pool, Node<E> root, Predicate<? super E> predicate) {
+        return pool.invoke(new CollectTask<E, List<Node<E>>>(List.of(root), ArrayList::new,
+                (list, node) -> {
+                    if (predicate.test(node.getElement())) {
+                        list.add(node);
+                    }
+                },
+                (list, other) -> {
+                    list.addAll(other);
+                    return list;
+                }));
+    }
+
+    static <E> Node<E> findAny(ForkJoinPool pool, Node<E> root, Predicate<? super E> predicate) {
+        AtomicReference<Node<E>> found = new AtomicReference<>();
+        pool.invoke(new CollectTask<E, Void>(List.of(root), () -> null,
+                (nothing, node) -> {
+                    if (predicate.test(node.getElement())) {
+                        found.compareAndSet(null, node);
+                    }
+                }, (nothing, other) -> null) {
+            @Override
+            boolean done() {
+                return found.get() != null;
+            }
+        });
+        return found.get();
+    }
+
+    private static <E> int sizeOf(List<Node<E>> nodes) {
+        int size = 0;
+        for (Node<E> node : nodes) {
+            size += node.getSubtreeSize();
+        }
+        return size;
+    }
+
+    /**
+     * it collects the nodes of the subtrees in a container of type {@code A}, the containers of the parts are
+     * combined in the order of {@link Tree#toArray()}
+     *
+     * @param <E> the type of elements held in the tree
+     * @param <A> the type of the container
+     */
+    private static class CollectTask<E, A> extends RecursiveTask<A> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Node<E>> nodes;
+        private final Supplier<A> supplier;
+        private final BiConsumer<A, Node<E>> accumulator;
+        private final BinaryOperator<A> combiner;
+
+        CollectTask(List<Node<E>> nodes, Supplier<A> supplier, BiConsumer<A, Node<E>> accumulator,
+                    BinaryOperator<A> combiner) {
+            this.nodes = nodes;
+            this.supplier = supplier;
+            this.accumulator = accumulator;
+            this.combiner = combiner;
+        }
+
+        /**
+         * @return {@code true} when the other nodes don't have to be visited anymore
+         */
+        boolean done() {
+            return false;
+        }
+
+        private CollectTask<E, A> split(List<Node<E>> part) {
+            CollectTask<E, A> outer = this;
+            return new CollectTask<>(part, supplier, accumulator, combiner) {
+                @Override
+                boolean done() {
+                    return outer.done();
+                }
+            };
+        }
+
+        @Override
+        protected A compute() {
+            List<Supplier<A>> before = new ArrayList<>();
+            ArrayDeque<CollectTask<E, A>> after = new ArrayDeque<>();
+            A own = null;
+            List<Node<E>> current = nodes;
+            while (!done()) {
+                int size = sizeOf(current);
+                if (current.size() == 1 && size > THRESHOLD) {
+                    Node<E> node = current.get(0);
+                    if (own == null) {
+                        A container = supplier.get();
+                        own = container;
+                        before.add(() -> container);
+                    }
+                    accumulator.accept(own, node);
+                    current = node.getChildren();
+                    continue;
+                }
+                if (size <= THRESHOLD) {
+                    A container = supplier.get();
+                    before.add(() -> container);
+                    Traversal<E> traversal = new Traversal<>();
+                    for (Node<E> node : current) {
+                        traversal.start(node, -1);
+                        while (traversal.next() && !done()) {
+                            accumulator.accept(container, traversal.node());
+                        }
+                    }
+                    break;
+                }
+                int firstSize = current.get(0).getSubtreeSize();
+                int i = 1;
+                while (i < current.size() - 1 && firstSize < size / 2) {
+                    firstSize += current.get(i++).getSubtreeSize();
+                }
+                List<Node<E>> first = current.subList(0, i);
+                List<Node<E>> second = current.subList(i, current.size());
+                if (firstSize >= size - firstSize) {
+                    CollectTask<E, A> task = split(second);
+                    task.fork();
+                    after.addFirst(task);
+                    current = first;
+                } else {
+                    CollectTask<E, A> task = split(first);
+                    task.fork();
+                    before.add(task::join);
+                    own = null;
+                    current = second;
+                }
+            }
+            A result = supplier.get();
+            for (Supplier<A> part : before) {
+                result = combiner.apply(result, part.get());
+            }
+            for (CollectTask<E, A> task : after) {
+                result = combiner.apply(result, task.join());
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package tree.trees;
+
+import tree.Node;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * this remembers the {@link Node} at the end of the absolute paths that were used the last, so
+ * {@link Tree#setPointerToAbsolutePad(List)}, {@link Tree#setPointerToAbsolutePad(int[])},
+ * {@link Tree#getElementAtAbsolutePath(int[])} and {@link Tree#removeNodeAtAbsolutePathPath(List)} don't have to go
+ * through every node from the {@code root} again. it is turned on with {@link Tree#enablePathCache(int)}.
+ *
+ * <p>for a path it looks for the longest first part of the path that is in the cache, starting with the whole path,
+ * and only walks the rest of the path from that node. the hashes of all the first parts are made in one pass over
+ * the path, so looking for them only reads the path and not the nodes. a path with {@code -1} in it is only looked
+ * up until the {@code -1} and is not put in the cache</p>
+ *
+ * <p>when there are more than {@code capacity} paths the path that was used the longest ago is removed. adding a
+ * node after the other children never changes a path, but removing a node moves the children after it one place
+ * down, so then every path that goes through the removed node or a later child of its {@code parent} is removed, that
+ * costs {@code O(size)} of the cache for every removed node. the same is done when a {@link TreeDiff} adds or moves
+ * a child between the other children</p>
+ *
+ * @see Tree#enablePathCache(int)
+ */
+public final class PathCache {
+    private final int capacity;
+    private final LinkedHashMap<Key, Node<?>> nodes;
+    private final Key probe = new Key(null, 0, 0);
+    private int[] hashes = new int[16];
+    private int[] buffer = new int[16];
+    private Node<?> found;
+    private long hits;
+    private long partialHits;
+    private long misses;
+
+    /**
+     * @param capacity the maximum number of paths
+     */
+    PathCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        nodes = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Node<?>> eldest) {
+                return size() > PathCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * @return the path in an array that is used again by the next call
+     */
+    int[] toArray(List<Integer> path) {
+        if (path.size() > buffer.length) {
+            buffer = new int[Math.max(path.size(), buffer.length * 2)];
+        }
+        int i = 0;
+        for (int step : path) {
+            buffer[i++] = step;
+        }
+        return buffer;
+    }
+
+    /**
+     * it looks for the longest first part of the path that is in the cache, the node of that part is in
+     * {@link #found()}
+     *
+     * @return the length of the part it found, {@code 0} when it found nothing
+     */
+    int find(int[] path, int length) {
+        if (length == 0) {
+            return 0;
+        }
+        if (length >= hashes.length) {
+            hashes = Arrays.copyOf(hashes, Math.max(length + 1, hashes.length * 2));
+        }
+        int clean = 0;
+        int hash = 1;
+        while (clean < length && path[clean] >= 0) {
+            hash = 31 * hash + path[clean];
+            hashes[++clean] = hash;
+        }
+        probe.path = path;
+        for (int i = clean; i > 0; i--) {
+            probe.length = i;
+            probe.hash = hashes[i];
+            Node<?> node = nodes.get(probe);
+            if (node != null) {
+                probe.path = null;
+                found = node;
+                if (i == length) {
+                    hits++;
+                } else {
+                    partialHits++;
+                }
+                return i;
+            }
+        }
+        probe.path = null;
+        misses++;
+        return 0;
+    }
+
+    /**
+     * @return the node of the last part {@link #find(int[], int)} found
+     */
+    @SuppressWarnings("unchecked")
+    <E> Node<E> found() {
+        Node<E> node = (Node<E>) found;
+        found = null;
+        return node;
+    }
+
+    /**
+     * this puts the node at the end of the path in the cache, a path with {@code -1} in it is not put in the cache
+     */
+    void put(int[] path, int length, Node<?> node) {
+        int hash = 1;
+        for (int i = 0; i < length; i++) {
+            if (path[i] < 0) {
+                return;
+            }
+            hash = 31 * hash + path[i];
+        }
+        nodes.put(new Key(Arrays.copyOf(path, length), length, hash), node);
+    }
+
+    /**
+     * this is called after the child with the index was removed from the {@code parent} at the path
+     */
+    void removed(List<Integer> parentPath, int index) {
+        int depth = parentPath.size();
+        int[] parent = parentPath.stream().mapToInt(Integer::intValue).toArray();
+        Iterator<Key> iterator = nodes.keySet().iterator();
+        while (iterator.hasNext()) {
+            Key key = iterator.next();
+            if (key.length > depth && key.path[depth] >= index
+                    && Arrays.equals(key.path, 0, depth, parent, 0, depth)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    void clear() {
+        nodes.clear();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the number of paths in the cache
+     */
+    public int getSize() {
+        return nodes.size();
+    }
+
+    /**
+     * @return the number of paths that were completely in the cache
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return the number of paths where only the first part was in the cache
+     */
+    public long getPartialHits() {
+        return partialHits;
+    }
+
+    /**
+     * @return the number of paths where nothing was in the cache
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return the part of the lookups that were completely in the cache, {@code 0} when there were none
+     */
+    public double getHitRate() {
+        long total = hits + partialHits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * this sets the hits and misses back to {@code 0}
+     */
+    public void resetStats() {
+        hits = 0;
+        partialHits = 0;
+        misses = 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PathCache: size: %d/%d, hits: %d, partial hits: %d, misses: %d",
+                nodes.size(), capacity, hits, partialHits, misses);
+    }
+
+    /**
+     * the first {@code length} steps of a path, the probe uses the path it looks up without a copy
+     */
+    private static final class Key {
+        private int[] path;
+        private int length;
+        private int hash;
+
+        Key(int[] path, int length, int hash) {
+            this.path = path;
+            this.length = length;
+            this.hash = hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return length == key.length && hash == key.hash
+                    && Arrays.equals(path, 0, length, key.path, 0, length);
+        }
+    }
+}
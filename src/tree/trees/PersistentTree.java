@@ -0,0 +1,444 @@
+package tree.trees;
+
+import tree.Node;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * a tree that can never be changed. the methods that change a {@link Tree} return a new version of the tree here and
+ * the old version stays the same, so a version can be kept as a snapshot and be read by many threads without a lock.
+ *
+ * <p>a new version only makes new nodes for the node that is changed and the nodes above it, every other subtree is
+ * shared with the old version. so {@link #insert(int[], Object)}, {@link #remove(List)},
+ * {@link #setElement(int[], Object)} and {@link #addTree(int[], PersistentTree)} cost {@code O(depth)} and not
+ * {@code O(n)} like {@link Tree#makeCopyOfTree()}. because a node is shared by more versions it does not know its
+ * {@code parent}, so this tree has no {@code pointer} and everything is done with absolute paths</p>
+ *
+ * <p>nothing is done recursively, so it will not generate a {@link StackOverflowError}</p>
+ *
+ * @param <E> the type of elements held in this tree
+ * @see Tree
+ */
+public final class PersistentTree<E> implements Iterable<E> {
+    @SuppressWarnings("rawtypes")
+    private static final PersistentTree EMPTY = new PersistentTree<>(null);
+    @SuppressWarnings("rawtypes")
+    private static final PNode[] NO_CHILDREN = new PNode[0];
+
+    private final PNode<E> root;
+
+    private PersistentTree(PNode<E> root) {
+        this.root = root;
+    }
+
+    /**
+     * @return the tree without elements
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentTree<E> empty() {
+        return (PersistentTree<E>) EMPTY;
+    }
+
+    /**
+     * this makes a {@link PersistentTree} with the same structure as the {@link Tree}. it has to visit every node
+     * once, after that every snapshot is a new version that shares the nodes
+     *
+     * @param tree the tree you want to copy
+     * @return the new tree
+     */
+    public static <E> PersistentTree<E> of(Tree<E> tree) {
+        if (tree.size == 0) {
+            return empty();
+        }
+        Deque<Node<E>> stack = new ArrayDeque<>();
+        Deque<PNode<E>> done = new ArrayDeque<>();
+        Deque<Node<E>> visited = new ArrayDeque<>();
+        stack.push(tree.root);
+        while (!stack.isEmpty()) {
+            Node<E> node = stack.pop();
+            visited.push(node);
+            for (Node<E> child : node.getChildren()) {
+                stack.push(child);
+            }
+        }
+        while (!visited.isEmpty()) {
+            Node<E> node = visited.pop();
+            List<Node<E>> children = node.getChildren();
+            PNode<E>[] newChildren = newChildren(children.size());
+            for (int i = newChildren.length - 1; i >= 0; i--) {
+                newChildren[i] = done.pop();
+            }
+            done.push(new PNode<>(node.getElement(), newChildren));
+        }
+        return new PersistentTree<>(done.pop());
+    }
+
+    /**
+     * this makes a {@link Tree} that can be changed with the same structure as this tree, the {@code pointer} is at
+     * the {@code root}
+     *
+     * @return the new tree
+     */
+    public Tree<E> toTree() {
+        Tree<E> tree = new Tree<>();
+        if (root == null) {
+            return tree;
+        }
+        Node<E> newRoot = new Node<>(root.element, null);
+        Deque<PNode<E>> stack = new ArrayDeque<>();
+        Deque<Node<E>> parents = new ArrayDeque<>();
+        stack.push(root);
+        parents.push(newRoot);
+        while (!stack.isEmpty()) {
+            PNode<E> node = stack.pop();
+            Node<E> parent = parents.pop();
+            for (PNode<E> child : node.children) {
+                Node<E> newChild = new Node<>(child.element, parent);
+                parent.addChild(newChild);
+                stack.push(child);
+                parents.push(newChild);
+            }
+        }
+        tree.replaceNodes(newRoot, root.size, newRoot);
+        return tree;
+    }
+
+    /**
+     * this adds the element as the last child of the node at the end of the path, when the tree is empty the element
+     * will be the {@code root} and the path is not used
+     *
+     * @param absolutePath the path from the {@code root} to the {@code parent} of the new node
+     * @param e            the element you want to add
+     * @return the new version of the tree
+     * @throws IndexOutOfBoundsException when there is no node at the end of the path
+     */
+    public PersistentTree<E> insert(int[] absolutePath, E e) {
+        if (root == null) {
+            return new PersistentTree<>(new PNode<>(e, newChildren(0)));
+        }
+        PNode<E>[] nodes = nodesOnPath(absolutePath);
+        PNode<E> parent = nodes[absolutePath.length];
+        PNode<E>[] children = Arrays.copyOf(parent.children, parent.children.length + 1);
+        children[parent.children.length] = new PNode<>(e, newChildren(0));
+        return replace(nodes, absolutePath, new PNode<>(parent.element, children));
+    }
+
+    /**
+     * @see #insert(int[], Object)
+     */
+    public PersistentTree<E> insert(List<Integer> absolutePath, E e) {
+        return insert(toArray(absolutePath), e);
+    }
+
+    /**
+     * this adds the element under the {@code root}
+     *
+     * @param e the element you want to add
+     * @return the new version of the tree
+     */
+    public PersistentTree<E> insert(E e) {
+        return insert(new int[0], e);
+    }
+
+    /**
+     * this changes the element of the node at the end of the path
+     *
+     * @param absolutePath the path from the {@code root} to the node
+     * @param e            the new element
+     * @return the new version of the tree
+     * @throws IndexOutOfBoundsException when there is no node at the end of the path
+     */
+    public PersistentTree<E> setElement(int[] absolutePath, E e) {
+        if (root == null) {
+            throw new IndexOutOfBoundsException("the tree is empty");
+        }
+        PNode<E>[] nodes = nodesOnPath(absolutePath);
+        PNode<E> node = nodes[absolutePath.length];
+        return replace(nodes, absolutePath, new PNode<>(e, node.children));
+    }
+
+    /**
+     * @see #setElement(int[], Object)
+     */
+    public PersistentTree<E> setElement(List<Integer> absolutePath, E e) {
+        return setElement(toArray(absolutePath), e);
+    }
+
+    /**
+     * this removes the node at the end of the path and everything under it, when the path is empty the new version
+     * is empty
+     *
+     * @param absolutePath the path from the {@code root} to the node
+     * @return the new version of the tree or this tree when there is no node at the end of the path
+     */
+    public PersistentTree<E> remove(List<Integer> absolutePath) {
+        int[] path = toArray(absolutePath);
+        if (root == null || !isValidPath(path)) {
+            return this;
+        }
+        if (path.length == 0) {
+            return empty();
+        }
+        PNode<E>[] nodes = nodesOnPath(path);
+        int last = path.length - 1;
+        PNode<E> parent = nodes[last];
+        PNode<E>[] children = newChildren(parent.children.length - 1);
+        System.arraycopy(parent.children, 0, children, 0, path[last]);
+        System.arraycopy(parent.children, path[last] + 1, children, path[last], children.length - path[last]);
+        return replace(nodes, Arrays.copyOf(path, last), new PNode<>(parent.element, children));
+    }
+
+    /**
+     * this removes the first node with the element and everything under it
+     *
+     * @param e the element you want to remove
+     * @return the new version of the tree or this tree when there is no node with the element
+     */
+    public PersistentTree<E> remove(E e) {
+        List<Integer> path = getAbsolutePadToElement(e);
+        if (path.isEmpty() && (root == null || !Objects.equals(root.element, e))) {
+            return this;
+        }
+        return remove(path);
+    }
+
+    /**
+     * this adds the other tree as the last child of the node at the end of the path. the nodes of the other tree are
+     * not copied, they are shared by both trees
+     *
+     * @param absolutePath the path from the {@code root} to the {@code parent} of the other tree
+     * @param tree         the tree you want to add
+     * @return the new version of the tree
+     * @throws IndexOutOfBoundsException when there is no node at the end of the path
+     */
+    public PersistentTree<E> addTree(int[] absolutePath, PersistentTree<E> tree) {
+        if (tree.root == null) {
+            return this;
+        }
+        if (root == null) {
+            return tree;
+        }
+        PNode<E>[] nodes = nodesOnPath(absolutePath);
+        PNode<E> parent = nodes[absolutePath.length];
+        PNode<E>[] children = Arrays.copyOf(parent.children, parent.children.length + 1);
+        children[parent.children.length] = tree.root;
+        return replace(nodes, absolutePath, new PNode<>(parent.element, children));
+    }
+
+    /**
+     * @return the number of elements in the tree
+     */
+    public int getSize() {
+        return root == null ? 0 : root.size;
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    /**
+     * @param absolutePath this is the path from the root to the element
+     * @return the element at the end of the path, when it can not go further it stops at the last node it reached
+     */
+    public E getElementAtAbsolutePath(int[] absolutePath) {
+        if (root == null) {
+            return null;
+        }
+        PNode<E> node = root;
+        for (int index : absolutePath) {
+            if (index < 0 || index >= node.children.length) {
+                break;
+            }
+            node = node.children[index];
+        }
+        return node.element;
+    }
+
+    /**
+     * @param absolutePath the path from the {@code root} to the node
+     * @return the number of nodes in the subtree of the node, the node included, or {@code 0} when there is no node
+     * at the end of the path
+     */
+    public int getSizeAt(int[] absolutePath) {
+        if (root == null || !isValidPath(absolutePath)) {
+            return 0;
+        }
+        return nodesOnPath(absolutePath)[absolutePath.length].size;
+    }
+
+    public boolean contains(E e) {
+        for (E element : this) {
+            if (Objects.equals(element, e)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param e the element you want to find
+     * @return the path from the {@code root} to the first node with the element or an empty list
+     */
+    public List<Integer> getAbsolutePadToElement(E e) {
+        ArrayWalk<PNode<E>> walk = walk(root);
+        while (walk.next()) {
+            if (Objects.equals(walk.node().element, e)) {
+                return walk.path();
+            }
+        }
+        return new LinkedList<>();
+    }
+
+    /**
+     * @param e the element you want to find
+     * @return the paths from the {@code root} to every node with the element
+     */
+    public List<List<Integer>> getAbsolutePatsToElement(E e) {
+        List<List<Integer>> pats = new ArrayList<>();
+        ArrayWalk<PNode<E>> walk = walk(root);
+        while (walk.next()) {
+            if (Objects.equals(walk.node().element, e)) {
+                pats.add(walk.path());
+            }
+        }
+        return pats;
+    }
+
+    /**
+     * @return the elements where every element comes before the elements under it
+     */
+    public List<E> toList() {
+        List<E> list = new ArrayList<>(getSize());
+        for (E e : this) {
+            list.add(e);
+        }
+        return list;
+    }
+
+    /**
+     * @return an {@link Iterator} in the order of {@link #toList()}
+     */
+    @Override
+    public Iterator<E> iterator() {
+        ArrayWalk<PNode<E>> walk = walk(root);
+        return new Iterator<>() {
+            private boolean hasNext = walk.next();
+
+            @Override
+            public boolean hasNext() {
+                return hasNext;
+            }
+
+            @Override
+            public E next() {
+                if (!hasNext) {
+                    throw new NoSuchElementException();
+                }
+                E e = walk.node().element;
+                hasNext = walk.next();
+                return e;
+            }
+        };
+    }
+
+    /**
+     * it returns the {@code String} to a tree structure like {@link Tree#toString()} without recursion
+     *
+     * @return {@code String}
+     */
+    @Override
+    public String toString() {
+        return ArrayWalk.toString(root, node -> node.children, node -> node.element);
+    }
+
+    private boolean isValidPath(int[] path) {
+        PNode<E> node = root;
+        for (int index : path) {
+            if (index < 0 || index >= node.children.length) {
+                return false;
+            }
+            node = node.children[index];
+        }
+        return true;
+    }
+
+    /**
+     * @return the nodes from the {@code root} to the end of the path, the {@code root} at index {@code 0}
+     * @throws IndexOutOfBoundsException when there is no node at the end of the path
+     */
+    private PNode<E>[] nodesOnPath(int[] path) {
+        PNode<E>[] nodes = newChildren(path.length + 1);
+        nodes[0] = root;
+        for (int i = 0; i < path.length; i++) {
+            PNode<E>[] children = nodes[i].children;
+            if (path[i] < 0 || path[i] >= children.length) {
+                throw new IndexOutOfBoundsException("no node at " + Arrays.toString(path));
+            }
+            nodes[i + 1] = children[path[i]];
+        }
+        return nodes;
+    }
+
+    /**
+     * this makes new nodes from the node at the end of the path up to the {@code root}, every other node is shared
+     *
+     * @param nodes   the nodes on the path as returned by {@link #nodesOnPath(int[])}
+     * @param path    the path to the node that is replaced
+     * @param newNode the node that replaces the node at the end of the path
+     * @return the new version of the tree
+     */
+    private PersistentTree<E> replace(PNode<E>[] nodes, int[] path, PNode<E> newNode) {
+        for (int i = path.length - 1; i >= 0; i--) {
+            PNode<E> parent = nodes[i];
+            PNode<E>[] children = parent.children.clone();
+            children[path[i]] = newNode;
+            newNode = new PNode<>(parent.element, children);
+        }
+        return new PersistentTree<>(newNode);
+    }
+
+    private static int[] toArray(List<Integer> path) {
+        int[] array = new int[path.size()];
+        int i = 0;
+        for (int index : path) {
+            array[i++] = index;
+        }
+        return array;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <E> PNode<E>[] newChildren(int length) {
+        return length == 0 ? NO_CHILDREN : new PNode[length];
+    }
+
+    private static <E> ArrayWalk<PNode<E>> walk(PNode<E> start) {
+        return new ArrayWalk<>(start, node -> node.children);
+    }
+
+    /**
+     * a node of a {@link PersistentTree}, it is never changed after it is made
+     */
+    private static final class PNode<E> {
+        private final E element;
+        private final PNode<E>[] children;
+        private final int size;
+
+        PNode(E element, PNode<E>[] children) {
+            this.element = element;
+            this.children = children;
+            int newSize = 1;
+            for (PNode<E> child : children) {
+                newSize += child.size;
+            }
+            size = newSize;
+        }
+    }
+}
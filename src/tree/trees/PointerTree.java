@@ -0,0 +1,168 @@
+package tree.trees;
+
+import java.util.List;
+
+/**
+ * the methods every tree with a {@code pointer} has. the {@code pointer} points to one node of the tree and can be
+ * moved via a relative path or an absolute path (from the {@code root}).
+ *
+ * <p>a path is a list of indexes, an index is the index of the child the {@code pointer} moves to and {@code -1}
+ * means it moves to the parent, as explained in {@link #movePointer(int)}</p>
+ *
+ * @param <E> the type of elements held in the tree
+ * @see Tree
+ * @see CompactTree
+ * @see MappedTree
+ * @see ConcurrentTree.Cursor
+ * @see LazyTree
+ */
+public interface PointerTree<E> extends Iterable<E> {
+
+    /**
+     * This will add the given element to the place of the {@code pointer}
+     *
+     * @param e           the element you want to add
+     * @param movePointer if {@code true} then the {@code pointer} will be the node with the element
+     */
+    void insert(E e, boolean movePointer);
+
+    /**
+     * This will add the given element to the place of the pointer
+     *
+     * @param e the element you want to add
+     */
+    void insert(E e);
+
+    /**
+     * This will move the {@code pointer} to the {@code parent} of the {@code pointer}
+     *
+     * @return {@code true} if the {@code pointer} has a {@code parent}
+     */
+    boolean movePointerUp();
+
+    /**
+     * this moves the {@code pointer} to the first child with the element
+     *
+     * @param e the element of the child
+     * @return {@code true} when there is a child with the element
+     */
+    boolean movePointerDown(E e);
+
+    /**
+     * this wil move the pointer to the index given
+     *
+     * @param i is the index of the child you want to move to
+     * @return true when he can move down
+     */
+    boolean movePointerDown(int i);
+
+    /**
+     * it will move up when the index is -1 otherwise it will move to the index given
+     *
+     * @param index is the index of the next node or -1 that means he moves up
+     * @return {@code true} when he can move that direction
+     */
+    boolean movePointer(int index);
+
+    /**
+     * this will move the pointer to the given path from the {@code pointer}
+     *
+     * @param relativePad the path
+     * @return {@code true} when he can move that direction completely.
+     */
+    boolean setPointerToRelativePad(int[] relativePad);
+
+    /**
+     * @see #setPointerToRelativePad(int[])
+     */
+    boolean setPointerToRelativePad(List<Integer> relativePad);
+
+    /**
+     * this will move the pointer to the given path from the {@code root}
+     *
+     * @param absolutePath the path
+     * @return {@code true} when he can move that direction completely.
+     */
+    boolean setPointerToAbsolutePad(int[] absolutePath);
+
+    /**
+     * @see #setPointerToAbsolutePad(int[])
+     */
+    boolean setPointerToAbsolutePad(List<Integer> absolutePath);
+
+    /**
+     * @return the path from the {@code root} to the {@code pointer}
+     */
+    List<Integer> getAbsolutePadToPointer();
+
+    /**
+     * Sets the pointer to the root
+     */
+    void setPointerToRoot();
+
+    /**
+     * @return {@code E} the element in the pointer
+     */
+    E getAtPointer();
+
+    /**
+     * @param relativePad this is the path from the {@code pointer} to the element you want to return
+     * @return {@code E} the element at the end of the path
+     */
+    E getElementAtRelativePath(int[] relativePad);
+
+    /**
+     * @param absolutePath this is the path from the root to the element
+     * @return {@code E} the element at the end of the path
+     */
+    E getElementAtAbsolutePath(int[] absolutePath);
+
+    /**
+     * @param e the element you want to find
+     * @return the path from the {@code root} to the first node with the element or an empty list
+     */
+    List<Integer> getAbsolutePadToElement(E e);
+
+    /**
+     * @param e the element you want to find
+     * @return the paths from the {@code root} to every node with the element
+     */
+    List<List<Integer>> getAbsolutePatsToElement(E e);
+
+    boolean contains(E e);
+
+    /**
+     * this removes the first node with the element and everything under it
+     *
+     * @param e the element you want to remove
+     * @return {@code true} when there was a node with the element
+     */
+    boolean remove(E e);
+
+    /**
+     * this removes the node at the end of the path from the {@code pointer} and everything under it
+     *
+     * @param path the path to the node
+     * @return {@code true} when there was a node at the end of the path
+     */
+    boolean removeNodeAtRelativePath(List<Integer> path);
+
+    /**
+     * this removes the node at the end of the path from the {@code root} and everything under it
+     *
+     * @param path the path to the node
+     * @return {@code true} when there was a node at the end of the path
+     */
+    boolean removeNodeAtAbsolutePathPath(List<Integer> path);
+
+    /**
+     * @return the number of elements in the tree
+     */
+    int getSize();
+
+    List<E> toList();
+
+    E[] toArray();
+
+    void clear();
+}
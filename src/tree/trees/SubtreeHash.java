@@ -0,0 +1,210 @@
+package tree.trees;
+
+import tree.Node;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * the hash of a subtree is made from the hash of the element of its root and the hashes of the subtrees of the
+ * children in their order, so two subtrees with the same elements in the same structure have the same hash. the
+ * hashes are 64 bits and mixed, so two different subtrees almost never get the same hash, but elements that are not
+ * equal with the same {@link Object#hashCode()} give the same hash, so a hash that is the same still has to be
+ * checked with {@link #sameSubtree(Node, Node)} when it has to be sure.
+ *
+ * <p>when a tree keeps the hashes an object of this class holds the hash of the subtree of every node in a map by
+ * the node and not in the nodes, so the nodes of a tree without hashes don't get bigger. a node that is not in the
+ * map has no valid hash. a change only takes the node and the nodes above it out of the map, it stops at the first
+ * node that is already out, and the hashes are only made again when they are asked, like the size of the subtree in
+ * {@link Node}. a node that is not valid never has a valid node above it</p>
+ *
+ * @param <E> the type of elements held in the tree
+ * @see Tree#enableSubtreeHashes()
+ * @see TreeDiff
+ */
+final class SubtreeHash<E> {
+    private static final long MULTIPLIER = 0x100000001B3L;
+
+    /**
+     * the hash of every node with a valid hash
+     */
+    private final Map<Node<E>, Long> hashes = new IdentityHashMap<>();
+
+    /**
+     * @param childHashes the hashes of the children in their order
+     * @return the hash of the subtree with the element in its root
+     */
+    static long of(Object element, long[] childHashes, int childCount) {
+        return of(element, childHashes, 0, childCount);
+    }
+
+    /**
+     * @param childHashes the hashes of the children in their order, starting at {@code from}
+     * @return the hash of the subtree with the element in its root
+     */
+    static long of(Object element, long[] childHashes, int from, int childCount) {
+        long hash = mix(Objects.hashCode(element) + 0x9E3779B97F4A7C15L);
+        for (int i = from; i < from + childCount; i++) {
+            hash = hash * MULTIPLIER + childHashes[i];
+        }
+        return mix(hash + childCount);
+    }
+
+    /**
+     * this makes the hash of the subtree of the node without keeping the hashes of the other nodes. it goes through
+     * the nodes where every node comes after its children and keeps the hashes of the children that are not used
+     * yet on one stack, so a node finds the hashes of its children on the top of the stack. the stack is never longer
+     * than the children of the nodes on one path, it does not use recursion
+     *
+     * @return the same hash as {@link #hashAll(Node)} gives for the node
+     */
+    static <E> long hashOf(Node<E> node) {
+        long[] stack = new long[16];
+        int top = 0;
+        Traversal<E> traversal = new Traversal<E>().start(node, -1);
+        while (traversal.nextPostOrder()) {
+            Node<E> current = traversal.node();
+            int childCount = current.getChildren().size();
+            top -= childCount;
+            long hash = of(current.getElement(), stack, top, childCount);
+            if (top == stack.length) {
+                stack = Arrays.copyOf(stack, top * 2);
+            }
+            stack[top++] = hash;
+        }
+        traversal.end();
+        return stack[0];
+    }
+
+    /**
+     * this makes the hash of every node under the node, it does not use recursion
+     *
+     * @return the hash of every node by the node
+     */
+    static <E> Map<Node<E>, Long> hashAll(Node<E> node) {
+        Map<Node<E>, Long> hashes = new IdentityHashMap<>();
+        long[] childHashes = new long[16];
+        Traversal<E> traversal = new Traversal<E>().start(node, -1);
+        while (traversal.nextPostOrder()) {
+            Node<E> current = traversal.node();
+            List<Node<E>> children = current.getChildren();
+            if (children.size() > childHashes.length) {
+                childHashes = new long[Math.max(children.size(), childHashes.length * 2)];
+            }
+            for (int i = 0; i < children.size(); i++) {
+                childHashes[i] = hashes.get(children.get(i));
+            }
+            hashes.put(current, of(current.getElement(), childHashes, children.size()));
+        }
+        traversal.end();
+        return hashes;
+    }
+
+    /**
+     * @return the hash of the subtree of the node, it makes the hashes that are not valid again without recursion
+     */
+    long hash(Node<E> node) {
+        Long hash = hashes.get(node);
+        if (hash != null) {
+            return hash;
+        }
+        ArrayList<Node<E>> stack = new ArrayList<>();
+        long[] childHashes = new long[16];
+        stack.add(node);
+        while (!stack.isEmpty()) {
+            Node<E> current = stack.get(stack.size() - 1);
+            List<Node<E>> children = current.getChildren();
+            boolean ready = true;
+            for (Node<E> child : children) {
+                if (!hashes.containsKey(child)) {
+                    stack.add(child);
+                    ready = false;
+                }
+            }
+            if (!ready) {
+                continue;
+            }
+            stack.remove(stack.size() - 1);
+            if (children.size() > childHashes.length) {
+                childHashes = new long[Math.max(children.size(), childHashes.length * 2)];
+            }
+            for (int i = 0; i < children.size(); i++) {
+                childHashes[i] = hashes.get(children.get(i));
+            }
+            hashes.put(current, of(current.getElement(), childHashes, children.size()));
+        }
+        return hashes.get(node);
+    }
+
+    /**
+     * this is called when the element of the node or its children changed
+     */
+    void changed(Node<E> node) {
+        while (node != null && hashes.remove(node) != null) {
+            node = node.getParent();
+        }
+    }
+
+    /**
+     * this takes the hashes of the node that was removed from the tree and the nodes under it out of the map, the
+     * {@code parent} is marked with {@link #changed(Node)}
+     */
+    void detached(Node<E> node) {
+        if (hashes.isEmpty()) {
+            return;
+        }
+        ArrayDeque<Node<E>> stack = new ArrayDeque<>();
+        stack.push(node);
+        while (!stack.isEmpty()) {
+            Node<E> current = stack.pop();
+            hashes.remove(current);
+            for (Node<E> child : current.getChildren()) {
+                stack.push(child);
+            }
+        }
+    }
+
+    /**
+     * this marks the hash of every node as not valid
+     */
+    void clear() {
+        hashes.clear();
+    }
+
+    /**
+     * @return {@code true} when the subtrees have equal elements in the same structure, it stops at the first
+     * difference and does not use recursion
+     */
+    static boolean sameSubtree(Node<?> first, Node<?> second) {
+        ArrayDeque<Node<?>> stack = new ArrayDeque<>();
+        stack.push(first);
+        stack.push(second);
+        while (!stack.isEmpty()) {
+            Node<?> b = stack.pop();
+            Node<?> a = stack.pop();
+            if (!Objects.equals(a.getElement(), b.getElement())
+                    || a.getChildren().size() != b.getChildren().size()) {
+                return false;
+            }
+            for (int i = 0; i < a.getChildren().size(); i++) {
+                stack.push(a.getChildren().get(i));
+                stack.push(b.getChildren().get(i));
+            }
+        }
+        return true;
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB93FE1A85BA9L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
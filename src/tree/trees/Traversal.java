@@ -0,0 +1,184 @@
+package tree.trees;
+
+import tree.Node;
+
+import java.util.List;
+
+/**
+ * this goes through the nodes under a {@link Node} without recursion and without making an object for every node.
+ *
+ * <p>it only remembers the {@code index} of the child it went into on every level in an {@code int[]}, to go back
+ * up it uses the {@code parent} of the node. the array only grows, so when the same traversal is used again it does
+ * not have to allocate anything</p>
+ *
+ * <p>the tree should not be changed while a traversal goes through it</p>
+ *
+ * @param <E> the type of elements held in the nodes
+ * @see AdvancedTree
+ */
+final class Traversal<E> {
+    private int[] indexes = new int[16];
+    private int depth;
+    private Node<E> start;
+    private Node<E> current;
+    private int skipChild;
+    private boolean started;
+    private boolean skipChildren;
+
+    /**
+     * this sets the traversal to the beginning
+     *
+     * @param node      the {@link Node} where it starts
+     * @param skipChild the index of the child of the first node that it has to skip or {@code -1}
+     * @return this traversal
+     */
+    Traversal<E> start(Node<E> node, int skipChild) {
+        start = node;
+        current = null;
+        depth = 0;
+        this.skipChild = skipChild;
+        started = false;
+        skipChildren = false;
+        return this;
+    }
+
+    /**
+     * it removes the references to the nodes so the traversal can be kept without keeping the nodes
+     */
+    void end() {
+        start = null;
+        current = null;
+    }
+
+    /**
+     * it goes to the next node where every node comes before its children
+     *
+     * @return {@code true} when there was a next node
+     */
+    boolean next() {
+        if (!started) {
+            started = true;
+            current = start;
+            return current != null;
+        }
+        if (current == null) {
+            return false;
+        }
+        if (!skipChildren && goDown()) {
+            return true;
+        }
+        skipChildren = false;
+        while (depth > 0) {
+            if (goToNextSibling()) {
+                return true;
+            }
+            depth--;
+            current = current.getParent();
+        }
+        current = null;
+        return false;
+    }
+
+    /**
+     * it goes to the next node where every node comes after its children
+     *
+     * @return {@code true} when there was a next node
+     */
+    boolean nextPostOrder() {
+        if (!started) {
+            started = true;
+            current = start;
+            if (current == null) {
+                return false;
+            }
+            while (goDown()) {
+            }
+            return true;
+        }
+        if (current == null) {
+            return false;
+        }
+        if (depth == 0) {
+            current = null;
+            return false;
+        }
+        if (goToNextSibling()) {
+            while (goDown()) {
+            }
+            return true;
+        }
+        depth--;
+        current = current.getParent();
+        return true;
+    }
+
+    /**
+     * when this is called {@link #next()} will not go to the children of the current node
+     */
+    void skipChildren() {
+        skipChildren = true;
+    }
+
+    /**
+     * @return the current node
+     */
+    Node<E> node() {
+        return current;
+    }
+
+    /**
+     * @return the number of levels the current node is under the node where it started
+     */
+    int depth() {
+        return depth;
+    }
+
+    /**
+     * @param level the level under the node where it started, {@code 0} is the first level
+     * @return the index of the child it went into on that level
+     */
+    int indexAt(int level) {
+        return indexes[level];
+    }
+
+    /**
+     * this adds the path from the node where it started to the current node to the list
+     *
+     * @param path the list the indexes are added to
+     */
+    void addPath(List<Integer> path) {
+        for (int i = 0; i < depth; i++) {
+            path.add(indexes[i]);
+        }
+    }
+
+    private boolean goDown() {
+        List<Node<E>> children = current.getChildren();
+        int first = depth == 0 && skipChild == 0 ? 1 : 0;
+        if (first >= children.size()) {
+            return false;
+        }
+        if (depth == indexes.length) {
+            int[] newIndexes = new int[depth * 2];
+            System.arraycopy(indexes, 0, newIndexes, 0, depth);
+            indexes = newIndexes;
+        }
+        indexes[depth++] = first;
+        current = children.get(first);
+        return true;
+    }
+
+    private boolean goToNextSibling() {
+        List<Node<E>> siblings = current.getParent().getChildren();
+        int next = indexes[depth - 1] + 1;
+        if (depth == 1 && next == skipChild) {
+            next++;
+        }
+        if (next >= siblings.size()) {
+            return false;
+        }
+        indexes[depth - 1] = next;
+        current = siblings.get(next);
+        return true;
+    }
+}
@@ -2,11 +2,34 @@ package tree.trees;
 
 import tree.Node;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectInput;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutput;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * This is a class that has a tree structure with {@link Node} represented as links between nodes.
@@ -14,7 +37,7 @@ import java.util.List;
  * <p>The {@code pointer} is a {@link Node} that points to a given {@link Node} that can be set and moved
  * via a relative path or a an absolute path (from the {@code root})<p>
  * this tree will do everything recursively if you dont want that use {@link AdvancedTree} it will not
- * generate a {@link StackOverflowError} but it is slower and will use more memory than this tree
+ * generate a {@link StackOverflowError}
  * </p></p>
  *
  * @param <E> the type of elements held in this tree
@@ -24,10 +47,40 @@ import java.util.List;
  * @see java.util.TreeSet
  * @see java.util.TreeMap
  */
-public class Tree<E> implements Serializable {
-    protected Node<E> root;
-    protected int size;
-    protected Node<E> pointer;
+public class Tree<E> implements Serializable, PointerTree<E> {
+    /**
+     * the bits {@link #writeObject(ObjectOutputStream)} writes for the features that are turned on, a tree that is
+     * read turns them on again
+     */
+    private static final int ELEMENT_INDEX = 1;
+    private static final int INTERVAL_LABELS = 1 << 1;
+    private static final int SUBTREE_HASHES = 1 << 2;
+
+    /**
+     * the nodes are not serialized as objects, {@link #writeObject(ObjectOutputStream)} writes them in the format
+     * of {@link TreeCodec}
+     */
+    protected transient Node<E> root;
+    protected transient int size;
+    protected transient Node<E> pointer;
+    protected transient ElementIndex<E> elementIndex;
+    protected transient IntervalLabels<E> intervalLabels;
+    /**
+     * this is {@code null} when the metrics are off, every measured operation checks it before it does anything
+     * with it
+     */
+    protected transient TreeMetrics metrics;
+    protected transient PathCache pathCache;
+    /**
+     * this is {@code null} when the subtree hashes are off, otherwise it keeps the hash of the subtree of the nodes as
+     * explained in {@link SubtreeHash}
+     */
+    protected transient SubtreeHash<E> subtreeHashes;
+    private transient Traversal<E> traversal;
+    /**
+     * this is changed every time a node is added or removed, so the iterators know when the tree is changed
+     */
+    protected transient int modCount;
 
     public Tree() {
         root = new Node<>(null);
@@ -43,6 +96,232 @@ public class Tree<E> implements Serializable {
         this.root = newTree.root;
         this.size = newTree.size;
         this.pointer = newTree.pointer;
+        this.elementIndex = newTree.elementIndex;
+        this.intervalLabels = newTree.intervalLabels;
+        this.subtreeHashes = newTree.subtreeHashes;
+    }
+
+    /**
+     * this turns on the element index. every element will be mapped to the {@link Node}s that hold it, so
+     * {@link #contains(Object)}, {@link #remove(Object)}, {@link #getAbsolutePadToElement(Object)} and
+     * {@link #getAbsolutePatsToElement(Object)} don't have to search the whole tree anymore.
+     *
+     * <p>the index costs extra memory for every node so it is off by default</p>
+     */
+    public void enableElementIndex() {
+        if (elementIndex != null) {
+            return;
+        }
+        elementIndex = new ElementIndex<>();
+        if (root.getElement() != null || !root.getChildren().isEmpty()) {
+            elementIndex.addSubtree(root);
+        }
+    }
+
+    /**
+     * this turns off the element index and frees the memory it used
+     */
+    public void disableElementIndex() {
+        elementIndex = null;
+    }
+
+    /**
+     * @return {@code true} when the element index is turned on
+     */
+    public boolean isElementIndexEnabled() {
+        return elementIndex != null;
+    }
+
+    /**
+     * this turns on the interval labels. every {@link Node} gets an interval that is inside the interval of its
+     * {@code parent} as explained in {@link IntervalLabels}, so {@link #getSubtreeAtPointer()},
+     * {@link #filterSubtreeAtPointer(Predicate)} and {@link #subtreeAtPointerContains(Object)} can read the subtree
+     * as one part of an array of all elements and don't have to go through the nodes.
+     *
+     * <p>the array is made again after the tree is changed, so the labels are best for a tree that is read a lot
+     * more than it is changed. they are off by default, a serialized tree makes them again when it is read</p>
+     */
+    public void enableIntervalLabels() {
+        if (intervalLabels != null) {
+            return;
+        }
+        intervalLabels = new IntervalLabels<>();
+        if (size > 0) {
+            intervalLabels.labelAll(root);
+        }
+    }
+
+    /**
+     * this turns off the interval labels and frees the array of the elements
+     */
+    public void disableIntervalLabels() {
+        intervalLabels = null;
+    }
+
+    /**
+     * @return {@code true} when the interval labels are turned on
+     */
+    public boolean isIntervalLabelsEnabled() {
+        return intervalLabels != null;
+    }
+
+    /**
+     * this turns on the subtree hashes. the tree keeps for every {@link Node} a hash of its element and the hashes
+     * of its children as explained in {@link SubtreeHash}, so {@link #getSubtreeHash()} can be kept to see later if the tree
+     * has changed, and {@link #equals(Object)} and {@link TreeDiff} find subtrees that are not the same by comparing
+     * two numbers. a change only marks the nodes above it and the hashes are made again when they are asked.
+     *
+     * <p>they are off by default, a serialized tree makes them again when it is read</p>
+     */
+    public void enableSubtreeHashes() {
+        if (subtreeHashes == null) {
+            subtreeHashes = new SubtreeHash<>();
+        }
+    }
+
+    /**
+     * this turns off the subtree hashes and forgets them
+     */
+    public void disableSubtreeHashes() {
+        subtreeHashes = null;
+    }
+
+    /**
+     * @return {@code true} when the subtree hashes are turned on
+     */
+    public boolean isSubtreeHashesEnabled() {
+        return subtreeHashes != null;
+    }
+
+    /**
+     * when the subtree hashes are on this only makes the hashes of the nodes that changed since the last call,
+     * otherwise it goes through the whole tree once and does not keep the hashes of the nodes
+     *
+     * @return the hash of the whole tree, {@code 0} when the tree is empty
+     */
+    public long getSubtreeHash() {
+        return size == 0 ? 0 : subtreeHashOf(root);
+    }
+
+    /**
+     * @return the hash of the subtree of the {@code pointer}, see {@link #getSubtreeHash()}
+     */
+    public long getSubtreeHashAtPointer() {
+        return size == 0 ? 0 : subtreeHashOf(pointer);
+    }
+
+    private long subtreeHashOf(Node<E> node) {
+        return subtreeHashes != null ? subtreeHashes.hash(node) : SubtreeHash.hashOf(node);
+    }
+
+    /**
+     * this finds the subtrees that are in the tree more than once, subtrees with the same hash are checked to be the
+     * same. the subtrees under a subtree that is found more than once are also found more than once
+     *
+     * @param minSize the minimum number of nodes of a subtree, smaller subtrees are skipped
+     * @return for every subtree that is found more than once the absolute paths to where it is, the paths and the
+     * groups are in the order of {@link #toArray()}
+     */
+    public List<List<List<Integer>>> findDuplicateSubtrees(int minSize) {
+        List<List<List<Integer>>> duplicates = new ArrayList<>();
+        if (size == 0) {
+            return duplicates;
+        }
+        Map<Node<E>, Long> hashes = subtreeHashes != null ? null : SubtreeHash.hashAll(root);
+        Map<Long, List<List<Node<E>>>> groups = new HashMap<>();
+        List<List<Node<E>>> found = new ArrayList<>();
+        Traversal<E> traversal = startTraversal(root, -1);
+        try {
+            while (traversal.next()) {
+                Node<E> node = traversal.node();
+                if (node.getSubtreeSize() < minSize) {
+                    traversal.skipChildren();
+                    continue;
+                }
+                long hash = hashes == null ? subtreeHashes.hash(node) : hashes.get(node);
+                List<List<Node<E>>> group = groups.computeIfAbsent(hash, h -> new ArrayList<>(1));
+                List<Node<E>> same = null;
+                for (List<Node<E>> nodes : group) {
+                    if (SubtreeHash.sameSubtree(nodes.get(0), node)) {
+                        same = nodes;
+                        break;
+                    }
+                }
+                if (same == null) {
+                    same = new ArrayList<>(2);
+                    group.add(same);
+                } else if (same.size() == 1) {
+                    found.add(same);
+                }
+                same.add(node);
+            }
+        } finally {
+            endTraversal(traversal);
+        }
+        for (List<Node<E>> nodes : found) {
+            List<List<Integer>> pats = new ArrayList<>(nodes.size());
+            for (Node<E> node : nodes) {
+                pats.add(getAbsolutePadToNode(node));
+            }
+            duplicates.add(pats);
+        }
+        return duplicates;
+    }
+
+    /**
+     * this turns on the cache of absolute paths explained in {@link PathCache}, it is best when the same paths are
+     * used again and again and nodes are not removed a lot
+     *
+     * @param capacity the maximum number of paths in the cache
+     * @return the cache, it has the numbers of hits and misses
+     * @throws IllegalArgumentException when the capacity is not positive
+     */
+    public PathCache enablePathCache(int capacity) {
+        if (pathCache == null || pathCache.getCapacity() != capacity) {
+            pathCache = new PathCache(capacity);
+        }
+        return pathCache;
+    }
+
+    /**
+     * this turns off the cache of absolute paths and frees the memory it used
+     */
+    public void disablePathCache() {
+        pathCache = null;
+    }
+
+    /**
+     * @return the cache of absolute paths or {@code null} when it is off
+     */
+    public PathCache getPathCache() {
+        return pathCache;
+    }
+
+    /**
+     * this turns on the metrics explained in {@link TreeMetrics}, the operations that are done from now on are
+     * measured
+     *
+     * @return the metrics of this tree, it is the same object when they were already on
+     */
+    public TreeMetrics enableMetrics() {
+        if (metrics == null) {
+            metrics = new TreeMetrics(this);
+        }
+        return metrics;
+    }
+
+    /**
+     * this turns off the metrics, the numbers that were measured stay in the {@link TreeMetrics} object
+     */
+    public void disableMetrics() {
+        metrics = null;
+    }
+
+    /**
+     * @return the metrics of this tree or {@code null} when they are off
+     */
+    public TreeMetrics getMetrics() {
+        return metrics;
     }
 
     /**
@@ -53,17 +332,35 @@ public class Tree<E> implements Serializable {
      *                    with the element
      */
     public void insert(E e, boolean movePointer) {
+        long start = metrics == null ? 0 : metrics.begin();
         size++;
         if (root.getElement() == null) {
             root.setElement(e);
+            if (elementIndex != null) {
+                elementIndex.add(root);
+            }
+            if (intervalLabels != null) {
+                intervalLabels.labelAll(root);
+            }
+            if (subtreeHashes != null) {
+                subtreeHashes.changed(root);
+            }
+            modCount++;
+            if (metrics != null) {
+                metrics.end(TreeMetrics.Operation.INSERT, start, 1, 0);
+            }
             return;
         }
         Node<E> newNode = new Node<>(e, pointer);
         pointer.addChild(newNode);
+        attached(newNode);
 
         if (movePointer) {
             pointer = newNode;
         }
+        if (metrics != null) {
+            metrics.end(TreeMetrics.Operation.INSERT, start, 1, newNode.getDepth());
+        }
     }
 
     /**
@@ -154,6 +451,9 @@ public class Tree<E> implements Serializable {
      * @return {@code true} (as specified by {@link Tree#setPointerToRelativePad(int[])})
      */
     public boolean setPointerToAbsolutePad(int[] absoluthePath) {
+        if (pathCache != null) {
+            return setPointerWithCache(absoluthePath, absoluthePath.length);
+        }
         setPointerToRoot();
         return setPointerToRelativePad(absoluthePath);
     }
@@ -164,14 +464,10 @@ public class Tree<E> implements Serializable {
      * @return a {@link ArrayList} of {@code Integer} with the absolute path.
      */
     public List<Integer> getAbsolutePadToPointer() {
-        ArrayList<Integer> pad = new ArrayList<>();
-        Node<E> currentPointer = pointer;
-        Node<E> lastPointer = pointer;
-        while (movePointerUp()) {
-            pad.add(pointer.getChildren().indexOf(lastPointer));
-            lastPointer = pointer;
+        ArrayList<Integer> pad = new ArrayList<>(pointer.getDepth());
+        for (Node<E> node = pointer; node.getParent() != null; node = node.getParent()) {
+            pad.add(node.getIndex());
         }
-        pointer = currentPointer;
         Collections.reverse(pad);
         return pad;
     }
@@ -183,10 +479,35 @@ public class Tree<E> implements Serializable {
      * @return {@code true} (as specified by {@link Tree#setPointerToRelativePad(int[])})
      */
     public boolean setPointerToAbsolutePad(List<Integer> absoluthePath) {
+        if (pathCache != null) {
+            return setPointerWithCache(pathCache.toArray(absoluthePath), absoluthePath.size());
+        }
         setPointerToRoot();
         return setPointerToRelativePad(absoluthePath);
     }
 
+    /**
+     * it starts at the node of the longest first part of the path that is in the {@link PathCache} and puts the
+     * path in the cache when it could move the whole path
+     *
+     * @param path   the absolute path
+     * @param length the number of steps in the path
+     * @return {@code true} (as specified by {@link Tree#setPointerToRelativePad(int[])})
+     */
+    private boolean setPointerWithCache(int[] path, int length) {
+        int matched = pathCache.find(path, length);
+        pointer = matched == 0 ? root : pathCache.found();
+        for (int i = matched; i < length; i++) {
+            if (!movePointer(path[i])) {
+                return false;
+            }
+        }
+        if (matched < length) {
+            pathCache.put(path, length, pointer);
+        }
+        return true;
+    }
+
     /**
      * this will move the pointer to the given path in the array. Its a relative path so the path will be from the point
      * of view of the array it wil move in the way explaind in {@link Tree#movePointer(int)}
@@ -217,6 +538,19 @@ public class Tree<E> implements Serializable {
         return pointer.getElement();
     }
 
+    /**
+     * this changes the element of the {@code pointer}, the nodes stay the same
+     *
+     * @param e the new element
+     */
+    public void setElementAtPointer(E e) {
+        if (size == 0) {
+            insert(e);
+            return;
+        }
+        setElementOfNode(pointer, e);
+    }
+
     /**
      * @param relativePad this is the path relative to the element you want to return
      * @return {@code E} the element at the end of the path
@@ -239,6 +573,12 @@ public class Tree<E> implements Serializable {
      */
     public E getElementAtAbsolutePath(int[] absoluthePath) {
         Node<E> currentPointer = pointer;
+        if (pathCache != null) {
+            setPointerWithCache(absoluthePath, absoluthePath.length);
+            E e = pointer.getElement();
+            pointer = currentPointer;
+            return e;
+        }
         setPointerToRoot();
         return getElementAtPath(absoluthePath, currentPointer);
     }
@@ -251,44 +591,109 @@ public class Tree<E> implements Serializable {
      * @throws StackOverflowError because its searches the element recursive.
      */
     public List<Integer> getAbsolutePadToElement(E e) {
-        LinkedList<Integer> pad = new LinkedList<>();
-        Node<E> currentPointer = pointer;
-        setPointerToRoot();
-        try {
-            pathToElement(pad, pointer, e, -1);
-        } finally {
-            pointer = currentPointer;
+        long start = metrics == null ? 0 : metrics.begin();
+        LinkedList<Integer> pad;
+        if (elementIndex != null) {
+            Node<E> node = firstIndexedNode(e);
+            pad = node == null ? new LinkedList<>() : getAbsolutePadToNode(node);
+        } else {
+            pad = new LinkedList<>();
+            Node<E> currentPointer = pointer;
+            setPointerToRoot();
+            try {
+                pathToElement(pad, pointer, e, -1);
+            } finally {
+                pointer = currentPointer;
+            }
+        }
+        if (metrics != null) {
+            metrics.end(TreeMetrics.Operation.PATH_TO_ELEMENT, start);
         }
-
-
         return pad;
     }
 
     /**
-     * it will search the element until it finds it
-     * <p>it will search the element under it and when it doesn't find it it will move the pointer up explained in
-     * {@link Tree#movePointerUp()} and then searches the elements under it except for the node he just searcht</p>
+     * this finds the element that is the closest to the {@code pointer}, see
+     * {@link #getRelativePadToElement(Object, int)}
      *
      * @param e the element you want to find
      * @return {@link LinkedList} of {@code Integers} that the path is to the element
-     * @throws StackOverflowError explained in {@link #pathToElement(LinkedList, Node, Object, int)}
      */
     public List<Integer> getRelativePadToElement(E e) {
+        return getRelativePadToElement(e, Integer.MAX_VALUE);
+    }
+
+    /**
+     * this searches the nodes ring by ring around the {@code pointer}: first the {@code pointer}, then the nodes
+     * one step away (the {@code parent} and the children), then the nodes two steps away and so on. it stops at the
+     * first ring with the element, so the path it returns is the shortest path and the nodes further away are not
+     * visited. in a ring the {@code parent} side comes before the children and the children are in the order of
+     * their {@code index}. it does not use recursion
+     *
+     * @param e           the element you want to find
+     * @param maxDistance the maximum number of steps from the {@code pointer}
+     * @return {@link LinkedList} of {@code Integers} with the relative path to the element as explained in
+     * {@link #movePointer(int)}, it is empty when the element is at the {@code pointer} or it is not found
+     * @throws IllegalArgumentException when the distance is negative
+     */
+    public List<Integer> getRelativePadToElement(E e, int maxDistance) {
+        if (maxDistance < 0) {
+            throw new IllegalArgumentException("negative distance: " + maxDistance);
+        }
+        long start = metrics == null ? 0 : metrics.begin();
         LinkedList<Integer> pad = new LinkedList<>();
-        Node<E> currentPointer = pointer;
-        Node<E> lastPointer = pointer;
-        int skipNode = -1;
-        try {
-            while (!pathToElement(pad, pointer, e, skipNode)) {
-                if (!movePointerUp()) {
+        if (size > 0) {
+            ArrayList<Node<E>> ring = new ArrayList<>();
+            int[] previous = new int[16];
+            int[] steps = new int[16];
+            ring.add(pointer);
+            previous[0] = -1;
+            int ringStart = 0;
+            int found = -1;
+            for (int distance = 0; found == -1 && ringStart < ring.size(); distance++) {
+                int ringEnd = ring.size();
+                for (int i = ringStart; i < ringEnd; i++) {
+                    if (metrics != null) {
+                        metrics.visit(ring.get(i));
+                    }
+                    if (ring.get(i).getElement().equals(e)) {
+                        found = i;
+                        break;
+                    }
+                }
+                if (found != -1 || distance == maxDistance) {
                     break;
                 }
-                pad.addFirst(-1);
-                skipNode = pointer.getChildren().indexOf(lastPointer);
-
+                for (int i = ringStart; i < ringEnd; i++) {
+                    Node<E> node = ring.get(i);
+                    Node<E> from = previous[i] == -1 ? null : ring.get(previous[i]);
+                    if (ring.size() + node.getChildren().size() + 1 > previous.length) {
+                        int length = Math.max(previous.length * 2, ring.size() + node.getChildren().size() + 1);
+                        previous = Arrays.copyOf(previous, length);
+                        steps = Arrays.copyOf(steps, length);
+                    }
+                    Node<E> parent = node.getParent();
+                    if (parent != null && parent != from) {
+                        previous[ring.size()] = i;
+                        steps[ring.size()] = -1;
+                        ring.add(parent);
+                    }
+                    for (Node<E> child : node.getChildren()) {
+                        if (child != from) {
+                            previous[ring.size()] = i;
+                            steps[ring.size()] = child.getIndex();
+                            ring.add(child);
+                        }
+                    }
+                }
+                ringStart = ringEnd;
             }
-        } finally {
-            pointer = currentPointer;
+            for (int i = found; i > 0; i = previous[i]) {
+                pad.addFirst(steps[i]);
+            }
+        }
+        if (metrics != null) {
+            metrics.end(TreeMetrics.Operation.RELATIVE_PATH_TO_ELEMENT, start);
         }
         return pad;
     }
@@ -304,6 +709,9 @@ public class Tree<E> implements Serializable {
      * @throws StackOverflowError because it searches the element recursively
      */
     protected boolean pathToElement(LinkedList<Integer> path, Node<E> node, E e, int skipInt) {
+        if (metrics != null) {
+            metrics.visit(node);
+        }
         ArrayList<Node<E>> arrayList = node.getChildren();
         if (node.getElement().equals(e)) {
             return true;
@@ -329,16 +737,28 @@ public class Tree<E> implements Serializable {
      * @throws StackOverflowError because it searches the element recursively
      */
     public List<List<Integer>> getAbsolutePatsToElement(E e) {
-        List<List<Integer>> pats = new ArrayList<>();
-        Node<E> currentPointer = pointer;
-        setPointerToRoot();
-        try {
-            patsToElement(pats, new LinkedList<>(), pointer, e, -1, false);
-        } finally {
-            pointer = currentPointer;
+        long start = metrics == null ? 0 : metrics.begin();
+        List<List<Integer>> pats;
+        if (elementIndex != null) {
+            List<Node<E>> nodes = elementIndex.get(e);
+            pats = new ArrayList<>(nodes.size());
+            for (Node<E> node : nodes) {
+                pats.add(getAbsolutePadToNode(node));
+            }
+            pats.sort(Tree::comparePaths);
+        } else {
+            pats = new ArrayList<>();
+            Node<E> currentPointer = pointer;
+            setPointerToRoot();
+            try {
+                patsToElement(pats, new LinkedList<>(), pointer, e, -1, false);
+            } finally {
+                pointer = currentPointer;
+            }
+        }
+        if (metrics != null) {
+            metrics.end(TreeMetrics.Operation.PATHS_TO_ELEMENT, start);
         }
-
-
         return pats;
     }
 
@@ -350,6 +770,7 @@ public class Tree<E> implements Serializable {
      * @throws StackOverflowError because it searches the element recursively
      */
     public List<List<Integer>> getRelativePathsToElement(E e) {
+        long start = metrics == null ? 0 : metrics.begin();
         List<List<Integer>> pats = new ArrayList<>();
         Node<E> currentPointer = pointer;
         Node<E> lastPointer = pointer;
@@ -362,13 +783,15 @@ public class Tree<E> implements Serializable {
                     break;
                 }
                 path.addFirst(-1);
-                skipNode = pointer.getChildren().indexOf(lastPointer);
+                skipNode = lastPointer.getIndex();
                 lastPointer = pointer;
             }
         } finally {
             pointer = currentPointer;
         }
-
+        if (metrics != null) {
+            metrics.end(TreeMetrics.Operation.RELATIVE_PATHS_TO_ELEMENT, start);
+        }
         return pats;
     }
 
@@ -386,6 +809,9 @@ public class Tree<E> implements Serializable {
      */
     protected boolean patsToElement(List<List<Integer>> pats, LinkedList<Integer> currentPath, Node<E> node, E e,
                                     int skipInt, boolean found) {
+        if (metrics != null) {
+            metrics.visit(node);
+        }
         if (node.getElement().equals(e)) {
             found = true;
             pats.add(new LinkedList<>(currentPath));
@@ -408,46 +834,381 @@ public class Tree<E> implements Serializable {
         return size;
     }
 
+    /**
+     * @return the number of nodes in the subtree of the {@code pointer}, the {@code pointer} included
+     */
+    public int getSizeAtPointer() {
+        return size == 0 ? 0 : pointer.getSubtreeSize();
+    }
+
+    /**
+     * this moves the {@code pointer} to the {@code k}-th node of the tree in the order of {@link #toArray()}
+     * explained in {@link Node#getNodeAtPreOrderIndex(int)}
+     *
+     * @param k the index of the node
+     * @return {@code true} when the tree has a {@code k}-th node
+     */
+    public boolean setPointerToPreOrderIndex(int k) {
+        if (k >= size) {
+            return false;
+        }
+        Node<E> node = root.getNodeAtPreOrderIndex(k);
+        if (node == null) {
+            return false;
+        }
+        pointer = node;
+        return true;
+    }
+
+    /**
+     * @param k the index of the node
+     * @return {@code E} the element of the {@code k}-th node of the tree in the order of {@link #toArray()}
+     * @throws IndexOutOfBoundsException when the tree has no {@code k}-th node
+     */
+    public E getElementAtPreOrderIndex(int k) {
+        Node<E> node = k < size ? root.getNodeAtPreOrderIndex(k) : null;
+        if (node == null) {
+            throw new IndexOutOfBoundsException("Index: " + k + ", Size: " + size);
+        }
+        return node.getElement();
+    }
+
+    /**
+     * @return the index of the {@code pointer} in the order of {@link #toArray()}
+     */
+    public int getPreOrderIndexOfPointer() {
+        return pointer.getPreOrderIndex();
+    }
+
+    /**
+     * @return the elements of the subtree of the {@code pointer} in the order of {@link #toArray()}, the
+     * {@code pointer} included. with {@link #enableIntervalLabels()} it is a copy of one part of an array
+     */
+    public List<E> getSubtreeAtPointer() {
+        return filterSubtreeAtPointer(e -> true);
+    }
+
+    /**
+     * @param predicate the test for the elements
+     * @return the elements of the subtree of the {@code pointer} that match in the order of {@link #toArray()}
+     */
+    @SuppressWarnings("unchecked")
+    public List<E> filterSubtreeAtPointer(Predicate<? super E> predicate) {
+        List<E> list = new ArrayList<>();
+        if (size == 0) {
+            return list;
+        }
+        int start = intervalLabels == null ? -1 : intervalLabels.startOf(this, pointer);
+        if (start >= 0) {
+            Object[] elements = intervalLabels.elements(this);
+            int end = start + pointer.getSubtreeSize();
+            for (int i = start; i < end; i++) {
+                if (predicate.test((E) elements[i])) {
+                    list.add((E) elements[i]);
+                }
+            }
+            return list;
+        }
+        Traversal<E> traversal = startTraversal(pointer, -1);
+        try {
+            while (traversal.next()) {
+                E e = traversal.node().getElement();
+                if (predicate.test(e)) {
+                    list.add(e);
+                }
+            }
+        } finally {
+            endTraversal(traversal);
+        }
+        return list;
+    }
+
+    /**
+     * with {@link #enableIntervalLabels()} and {@link #enableElementIndex()} it only checks the intervals of the
+     * nodes with the element
+     *
+     * @param e the element you want to find
+     * @return {@code true} when the element is in the subtree of the {@code pointer}, the {@code pointer} included
+     */
+    public boolean subtreeAtPointerContains(E e) {
+        if (size == 0) {
+            return false;
+        }
+        if (intervalLabels != null && elementIndex != null) {
+            for (Node<E> node : elementIndex.get(e)) {
+                if (intervalLabels.isInSubtree(pointer, node)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return !filterSubtreeAtPointer(element -> Objects.equals(element, e)).isEmpty();
+    }
+
     public boolean remove(E e) {
-        Node<E> currentNode = root;
-        return removeNode(currentNode, e);
+        long start = metrics == null ? 0 : metrics.begin();
+        boolean removed;
+        if (elementIndex != null) {
+            Node<E> node = firstIndexedNode(e);
+            removed = node != null;
+            if (removed) {
+                removeNodeFromTree(node);
+            }
+        } else {
+            removed = removeNode(root, e);
+        }
+        if (metrics != null) {
+            metrics.end(TreeMetrics.Operation.REMOVE, start);
+        }
+        return removed;
     }
     public boolean removeNodeAtRelativePath(List<Integer> path) {
         Node<E> currentPointer = pointer;
+        Node<E> node;
         boolean found;
         try {
             found=setPointerToRelativePad(path);
-            if (found) {
-                Node<E> parent = pointer.getParent();
-                parent.getChildren().remove(pointer);
-            }
+            node = pointer;
         } finally {
             pointer = currentPointer;
         }
+        if (found) {
+            removeNodeFromTree(node);
+        }
         return found;
     }
     public boolean removeNodeAtAbsolutePathPath(List<Integer> path) {
         Node<E> currentPointer = pointer;
+        Node<E> node;
         boolean found;
         try {
             found=setPointerToAbsolutePad(path);
-            if (found) {
-                Node<E> parent = pointer.getParent();
-                parent.getChildren().remove(pointer);
-            }
+            node = pointer;
         } finally {
             pointer = currentPointer;
         }
+        if (found) {
+            removeNodeFromTree(node);
+        }
         return found;
     }
 
-    protected boolean removeNode(Node<E> node, E e) {
-        if (node.getElement().equals(e)) {
-            Node<E> parent = node.getParent();
-            parent.getChildren().remove(node);
-            return true;
+    /**
+     * this removes the {@link Node} and everything under it from the tree. when the node is the {@code root} the
+     * tree will be cleared
+     *
+     * @param node the node you want to remove
+     */
+    protected void removeNodeFromTree(Node<E> node) {
+        Node<E> parent = node.getParent();
+        if (parent == null) {
+            clear();
+            return;
         }
-        ArrayList<Node<E>> arrayList = node.getChildren();
+        int index = node.getIndex();
+        parent.removeChild(node);
+        if (pathCache != null) {
+            pathCache.removed(getAbsolutePadToNode(parent), index);
+        }
+        size -= node.getSubtreeSize();
+        detached(node);
+    }
+
+    /**
+     * this changes the element of a node of this tree and keeps the element index up to date
+     */
+    void setElementOfNode(Node<E> node, E e) {
+        if (elementIndex != null) {
+            elementIndex.remove(node);
+        }
+        node.setElement(e);
+        if (elementIndex != null) {
+            elementIndex.add(node);
+        }
+        if (subtreeHashes != null) {
+            subtreeHashes.changed(node);
+        }
+        modCount++;
+    }
+
+    /**
+     * this adds a subtree as the child with the index, the children after it move one place up
+     *
+     * @param parent  a {@link Node} of this tree
+     * @param index   the index the subtree gets
+     * @param subtree the root of the new nodes, its {@code parent} has to be the parent
+     */
+    void insertSubtree(Node<E> parent, int index, Node<E> subtree) {
+        parent.addChild(index, subtree);
+        if (pathCache != null) {
+            pathCache.removed(getAbsolutePadToNode(parent), index);
+        }
+        size += subtree.getSubtreeSize();
+        attached(subtree);
+    }
+
+    /**
+     * this moves a child to another index in the same {@code parent}, the nodes under it move with it
+     *
+     * @param parent a {@link Node} of this tree
+     * @param from   the index of the child
+     * @param to     the index it gets after it was taken out of the children
+     */
+    void moveChild(Node<E> parent, int from, int to) {
+        Node<E> node = parent.getChildren().get(from);
+        parent.removeChild(node);
+        parent.addChild(to, node);
+        modCount++;
+        if (pathCache != null) {
+            pathCache.removed(getAbsolutePadToNode(parent), Math.min(from, to));
+        }
+        if (intervalLabels != null) {
+            intervalLabels.attached(node);
+        }
+        if (subtreeHashes != null) {
+            subtreeHashes.changed(parent);
+        }
+    }
+
+    /**
+     * this is called after a {@link Node} with everything under it is added to the tree
+     *
+     * @param node the node that is added
+     */
+    protected void attached(Node<E> node) {
+        modCount++;
+        if (elementIndex != null) {
+            elementIndex.addSubtree(node);
+        }
+        if (intervalLabels != null) {
+            intervalLabels.attached(node);
+        }
+        if (subtreeHashes != null) {
+            subtreeHashes.changed(node.getParent());
+        }
+    }
+
+    /**
+     * this is called after a {@link Node} with everything under it is removed from the tree
+     *
+     * @param node the node that is removed
+     */
+    protected void detached(Node<E> node) {
+        modCount++;
+        if (elementIndex != null) {
+            elementIndex.removeSubtree(node);
+        }
+        if (intervalLabels != null) {
+            intervalLabels.detached(node);
+        }
+        if (subtreeHashes != null) {
+            subtreeHashes.detached(node);
+            subtreeHashes.changed(node.getParent());
+        }
+    }
+
+    /**
+     * @param node a {@link Node} in this tree
+     * @return {@link LinkedList} of {@code Integers} with the path from the {@code root} to the node
+     */
+    protected LinkedList<Integer> getAbsolutePadToNode(Node<E> node) {
+        return getPadBetween(null, node);
+    }
+
+    /**
+     * it walks up from the node to the ancestor with the {@code index} every node has in its {@code parent}
+     *
+     * @param ancestor the {@link Node} where the path starts, {@code null} for the {@code root}
+     * @param node     a {@link Node} under the ancestor
+     * @return {@link LinkedList} of {@code Integers} with the path from the ancestor to the node
+     */
+    protected LinkedList<Integer> getPadBetween(Node<E> ancestor, Node<E> node) {
+        LinkedList<Integer> pad = new LinkedList<>();
+        while (node != ancestor && node.getParent() != null) {
+            pad.addFirst(node.getIndex());
+            node = node.getParent();
+        }
+        return pad;
+    }
+
+    /**
+     * it looks the element up in the element index and returns the node that comes first when you search the tree
+     * from the {@code root}, so the index gives the same answer as a search
+     */
+    private Node<E> firstIndexedNode(E e) {
+        Node<E> first = null;
+        for (Node<E> node : elementIndex.get(e)) {
+            if (first == null || comesBefore(node, first)) {
+                first = node;
+            }
+        }
+        return first;
+    }
+
+    /**
+     * it walks up from both nodes to the first {@code parent} they have in common, so it does not have to make the
+     * paths to them
+     *
+     * @return {@code true} when the first node is visited before the second node when the tree is searched from the
+     * {@code root}
+     */
+    private static <E> boolean comesBefore(Node<E> first, Node<E> second) {
+        int firstLevel = levelOf(first);
+        int secondLevel = levelOf(second);
+        Node<E> node1 = first;
+        Node<E> node2 = second;
+        for (; firstLevel > secondLevel; firstLevel--) {
+            node1 = node1.getParent();
+        }
+        for (; secondLevel > firstLevel; secondLevel--) {
+            node2 = node2.getParent();
+        }
+        if (node1 == node2) {
+            return node1 == first;
+        }
+        while (node1.getParent() != node2.getParent()) {
+            node1 = node1.getParent();
+            node2 = node2.getParent();
+        }
+        return node1.getIndex() < node2.getIndex();
+    }
+
+    /**
+     * @return the number of nodes above the node that are still in the tree
+     */
+    private static int levelOf(Node<?> node) {
+        int level = 0;
+        while (node.getParent() != null && node.getIndex() >= 0) {
+            level++;
+            node = node.getParent();
+        }
+        return level;
+    }
+
+    /**
+     * compares two absolute paths in the order they are visited when the tree is searched from the {@code root}
+     */
+    protected static int comparePaths(List<Integer> path1, List<Integer> path2) {
+        Iterator<Integer> iterator1 = path1.iterator();
+        Iterator<Integer> iterator2 = path2.iterator();
+        while (iterator1.hasNext() && iterator2.hasNext()) {
+            int compare = Integer.compare(iterator1.next(), iterator2.next());
+            if (compare != 0) {
+                return compare;
+            }
+        }
+        return Boolean.compare(iterator1.hasNext(), iterator2.hasNext());
+    }
+
+    protected boolean removeNode(Node<E> node, E e) {
+        if (metrics != null) {
+            metrics.visit(node);
+        }
+        if (node.getElement().equals(e)) {
+            removeNodeFromTree(node);
+            return true;
+        }
+        ArrayList<Node<E>> arrayList = node.getChildren();
         for (Node<E> eNode : arrayList) {
             if (removeNode(eNode, e)) {
                 return true;
@@ -457,10 +1218,19 @@ public class Tree<E> implements Serializable {
     }
 
     public boolean contains(E e) {
-        return contains(root, e);
+        if (metrics == null) {
+            return elementIndex != null ? elementIndex.contains(e) : contains(root, e);
+        }
+        long start = metrics.begin();
+        boolean found = elementIndex != null ? elementIndex.contains(e) : contains(root, e);
+        metrics.end(TreeMetrics.Operation.CONTAINS, start);
+        return found;
     }
 
     protected boolean contains(Node<E> node, E e) {
+        if (metrics != null) {
+            metrics.visit(node);
+        }
         ArrayList<Node<E>> arrayList = node.getChildren();
         if (node.getElement().equals(e)) {
             return true;
@@ -480,16 +1250,246 @@ public class Tree<E> implements Serializable {
     }
 
     public void toList(List<E> list) {
+        if (metrics == null) {
+            toList(list, root);
+            return;
+        }
+        long start = metrics.begin();
         toList(list, root);
+        metrics.end(TreeMetrics.Operation.TO_LIST, start);
     }
 
     protected void toList(List<E> list, Node<E> node) {
         for (Node<E> child : node.getChildren()) {
+            if (metrics != null) {
+                metrics.visit(child);
+            }
             list.add(child.getElement());
             toList(list, child);
         }
     }
 
+    /**
+     * @return the same as {@link #preOrderIterator()}
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return preOrderIterator();
+    }
+
+    /**
+     * this gives the elements in the same order as {@link #toArray()}, every element before the elements under it.
+     * it only goes to the next node when it is asked so it does not copy the elements and it does not use recursion.
+     *
+     * @return an {@link Iterator} that throws a {@link java.util.ConcurrentModificationException} when the tree is
+     * changed while it is used
+     */
+    public Iterator<E> preOrderIterator() {
+        return new TreeIterator.PreOrder<>(this, root);
+    }
+
+    /**
+     * the same as {@link #preOrderIterator()} but every element comes after the elements under it
+     *
+     * @return an {@link Iterator} over the elements
+     */
+    public Iterator<E> postOrderIterator() {
+        return new TreeIterator.PostOrder<>(this, root);
+    }
+
+    /**
+     * the same as {@link #preOrderIterator()} but it gives the elements level by level, first the {@code root} then
+     * its children and so on. it keeps the nodes of the next level it still has to visit
+     *
+     * @return an {@link Iterator} over the elements
+     */
+    public Iterator<E> levelOrderIterator() {
+        return new TreeIterator.LevelOrder<>(this, root);
+    }
+
+    /**
+     * this gives a {@link Spliterator} in the order of {@link #preOrderIterator()} that splits at the children of the
+     * nodes. it knows the exact size of every part because every {@link Node} knows the size of its subtree
+     *
+     * @return a {@link Spliterator} that is {@link Spliterator#SIZED} and {@link Spliterator#SUBSIZED}
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        if (size == 0) {
+            return new NodeSpliterator<>(this, null);
+        }
+        return new NodeSpliterator<>(this, root);
+    }
+
+    /**
+     * @return a sequential {@link Stream} of the elements in the order of {@link #preOrderIterator()}
+     */
+    public Stream<E> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * @return a parallel {@link Stream} of the elements, it is split as explained in {@link #spliterator()}
+     */
+    public Stream<E> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /**
+     * this does the action for every element with more threads of the {@link ForkJoinPool#commonPool()}. the work is
+     * split at the children of the nodes on the size of their subtrees, so a tree that is not balanced is still
+     * divided evenly. the elements are not given in a fixed order
+     *
+     * @param action the action for every element, it can be called from more threads at the same time
+     */
+    public void parallelForEach(Consumer<? super E> action) {
+        if (size == 0) {
+            return;
+        }
+        root.getSubtreeSize();
+        ParallelOperations.forEach(ForkJoinPool.commonPool(), root, action);
+    }
+
+    /**
+     * this maps every element and combines the results with more threads like {@link #parallelForEach(Consumer)}.
+     * the parts are combined in the order of {@link #toArray()}
+     *
+     * @param identity the result of an empty part, it has to be an identity for the combiner
+     * @param mapper   it makes the result of one element
+     * @param combiner it combines two results, it has to be associative
+     * @param <R>      the type of the result
+     * @return the combined result of all elements
+     */
+    public <R> R parallelReduce(R identity, Function<? super E, ? extends R> mapper, BinaryOperator<R> combiner) {
+        if (size == 0) {
+            return identity;
+        }
+        root.getSubtreeSize();
+        return ParallelOperations.reduce(ForkJoinPool.commonPool(), root, identity, mapper, combiner);
+    }
+
+    /**
+     * this searches an element that matches with more threads like {@link #parallelForEach(Consumer)}, it stops all
+     * threads when one of them finds a match. it is not always the first match
+     *
+     * @param predicate the test for the element
+     * @return an element that matches or an empty {@link Optional}
+     */
+    public Optional<E> parallelFindAny(Predicate<? super E> predicate) {
+        if (size == 0) {
+            return Optional.empty();
+        }
+        root.getSubtreeSize();
+        Node<E> node = ParallelOperations.findAny(ForkJoinPool.commonPool(), root, predicate);
+        return node == null ? Optional.empty() : Optional.ofNullable(node.getElement());
+    }
+
+    /**
+     * this is almost the same as {@link #getAbsolutePatsToElement(Object)} but it tests the elements with more
+     * threads like {@link #parallelForEach(Consumer)}
+     *
+     * @param predicate the test for the element
+     * @return an {@link ArrayList} with {@link LinkedList} with the absolut paths to the elements that match, in the
+     * order of {@link #toArray()}
+     */
+    public List<List<Integer>> parallelFindAll(Predicate<? super E> predicate) {
+        List<List<Integer>> pats = new ArrayList<>();
+        if (size == 0) {
+            return pats;
+        }
+        root.getSubtreeSize();
+        for (Node<E> node : ParallelOperations.findAll(ForkJoinPool.commonPool(), root, predicate)) {
+            pats.add(getAbsolutePadToNode(node));
+        }
+        return pats;
+    }
+
+    /**
+     * @see #find(Predicate, Predicate, int)
+     */
+    public List<List<Integer>> find(Predicate<? super E> match, int limit) {
+        return find(match, e -> false, limit);
+    }
+
+    /**
+     * this searches the tree from the {@code root} in the order of {@link #toArray()} and stops when it found
+     * {@code limit} nodes, the nodes after that are not visited. it does not use recursion
+     *
+     * @param match the elements it looks for
+     * @param prune when it is {@code true} for an element the node and everything under it is skipped
+     * @param limit the maximum number of paths
+     * @return the absolute paths to the nodes it found
+     * @throws IllegalArgumentException when the limit is negative
+     */
+    public List<List<Integer>> find(Predicate<? super E> match, Predicate<? super E> prune, int limit) {
+        List<List<Integer>> pats = new ArrayList<>();
+        TreeSearch<E> search = startSearch(match, prune, limit);
+        long start = metrics == null ? 0 : metrics.begin();
+        while (pats.size() < limit && search.hasNext()) {
+            search.next();
+            pats.add(search.path());
+        }
+        endSearch(search, start);
+        return pats;
+    }
+
+    /**
+     * this is the same as {@link #find(Predicate, Predicate, int)} but it returns the {@link Node}s, they should not
+     * be changed directly
+     *
+     * @return the nodes it found in the order of {@link #toArray()}
+     */
+    public List<Node<E>> findNodes(Predicate<? super E> match, Predicate<? super E> prune, int limit) {
+        List<Node<E>> nodes = new ArrayList<>();
+        TreeSearch<E> search = startSearch(match, prune, limit);
+        long start = metrics == null ? 0 : metrics.begin();
+        while (nodes.size() < limit && search.hasNext()) {
+            nodes.add(search.next());
+        }
+        endSearch(search, start);
+        return nodes;
+    }
+
+    /**
+     * this searches like {@link #find(Predicate, Predicate, int)} but only goes to the next node when the stream
+     * asks for it, so {@link Stream#limit(long)} and {@link Stream#findFirst()} stop the search. the tree should not
+     * be changed before the stream is done
+     *
+     * @return a sequential {@link Stream} of the absolute paths to the nodes it found
+     */
+    public Stream<List<Integer>> findStream(Predicate<? super E> match, Predicate<? super E> prune) {
+        TreeSearch<E> search = startSearch(match, prune, 0);
+        Iterator<List<Integer>> pats = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return search.hasNext();
+            }
+
+            @Override
+            public List<Integer> next() {
+                search.next();
+                return search.path();
+            }
+        };
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(pats, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    private TreeSearch<E> startSearch(Predicate<? super E> match, Predicate<? super E> prune, int limit) {
+        Objects.requireNonNull(match);
+        Objects.requireNonNull(prune);
+        if (limit < 0) {
+            throw new IllegalArgumentException("negative limit: " + limit);
+        }
+        return new TreeSearch<>(this, match, prune);
+    }
+
+    private void endSearch(TreeSearch<E> search, long start) {
+        if (metrics != null) {
+            metrics.end(TreeMetrics.Operation.FIND, start, search.visited(), search.maxDepth());
+        }
+    }
+
     /**
      * it will make an Array of the elements
      *
@@ -500,7 +1500,13 @@ public class Tree<E> implements Serializable {
     public E[] toArray() {
         Object[] array;
         array = new Object[size];
-        toArray(array, root, 0);
+        if (metrics == null) {
+            toArray(array, root, 0);
+        } else {
+            long start = metrics.begin();
+            toArray(array, root, 0);
+            metrics.end(TreeMetrics.Operation.TO_ARRAY, start);
+        }
         return (E[]) array;
     }
 
@@ -513,10 +1519,16 @@ public class Tree<E> implements Serializable {
      */
     protected int toArray(Object[] elements, Node<E> node, int index) {
         if (index == 0) {
+            if (metrics != null) {
+                metrics.visit(node);
+            }
             elements[0] = node.getElement();
             index++;
         }
         for (Node<E> next : node.getChildren()) {
+            if (metrics != null) {
+                metrics.visit(next);
+            }
             elements[index] = next.getElement();
 
             index = toArray(elements, next, ++index);
@@ -532,27 +1544,103 @@ public class Tree<E> implements Serializable {
      *                            and that has to make a copy of his children, and it does that recursively
      */
     public void addTree(Tree<E> tree) {
-        pointer.addChild(tree.makeCopyOfTree().root);
-        size += tree.getSize();
+        Node<E> copy = tree.copySubtree(tree.root, pointer);
+        pointer.addChild(copy);
+        size += copy.getSubtreeSize();
+        attached(copy);
     }
 
+    /**
+     * it copies the nodes with {@link #copySubtree(Node, Node)} in a tree of {@link #newEmptyTree()} and turns on
+     * the same element index, interval labels and subtree hashes in the copy
+     *
+     * @return the copy of this tree with the {@code pointer} at the same path
+     */
     public Tree<E> makeCopyOfTree() {
-        Tree<E> tree = new Tree<>();
+        long start = metrics == null ? 0 : metrics.begin();
+        Tree<E> tree = newEmptyTree();
         List<Integer> pathToPointer = getAbsolutePadToPointer();
-        tree.root = root.makeCoppy(null);
+        tree.root = copySubtree(root, null);
         tree.setPointerToAbsolutePad(pathToPointer);
         tree.size = size;
+        if (elementIndex != null) {
+            tree.enableElementIndex();
+        }
+        if (intervalLabels != null) {
+            tree.enableIntervalLabels();
+        }
+        if (subtreeHashes != null) {
+            tree.enableSubtreeHashes();
+        }
+        if (metrics != null) {
+            metrics.end(TreeMetrics.Operation.COPY, start, size, 0);
+        }
         return tree;
     }
 
+    /**
+     * @return an empty tree of the same class, {@link #makeCopyOfTree()} puts the copy of the nodes in it
+     */
+    protected Tree<E> newEmptyTree() {
+        return new Tree<>();
+    }
+
+    /**
+     * this will make a copy of the node and everything under it
+     *
+     * @param node   the {@link Node} you want to copy
+     * @param parent the {@code parent} for the copy
+     * @return the copy of the node
+     * @throws StackOverflowError explained in {@link Node#makeCoppy(Node)}
+     */
+    protected Node<E> copySubtree(Node<E> node, Node<E> parent) {
+        return node.makeCoppy(parent);
+    }
+
     private Tree<E> makeCopyOfTreeFromPointer() {
         Tree<E> tree = new Tree<>();
         tree.root = pointer.makeCoppy(null);
         tree.pointer = tree.root;
-        tree.size = root.getSizeUnderIt();
+        tree.size = pointer.getSubtreeSize();
         return tree;
     }
 
+    /**
+     * two trees are equal when they have equal elements in the same structure, the {@code pointer} does not matter.
+     * when both trees keep subtree hashes, trees that are not equal are mostly found by comparing the hashes
+     *
+     * @param o the object to compare with
+     * @return {@code true} when the object is a tree with equal elements in the same structure
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Tree)) {
+            return false;
+        }
+        Tree<?> tree = (Tree<?>) o;
+        if (size != tree.size) {
+            return false;
+        }
+        if (size == 0) {
+            return true;
+        }
+        if (subtreeHashes != null && tree.subtreeHashes != null && getSubtreeHash() != tree.getSubtreeHash()) {
+            return false;
+        }
+        return SubtreeHash.sameSubtree(root, tree.root);
+    }
+
+    /**
+     * @return the hash made from {@link #getSubtreeHash()}
+     */
+    @Override
+    public int hashCode() {
+        return Long.hashCode(getSubtreeHash());
+    }
+
     /**
      * it returns the {@code String} to a tree structure it does that in a recoursive way so it can throw a
      * {@link StackOverflowError} if that happens it will return Tree: size: {@code size} en de message of the error
@@ -561,21 +1649,121 @@ public class Tree<E> implements Serializable {
      */
     @Override
     public String toString() {
+        long start = metrics == null ? 0 : metrics.begin();
         StringBuilder sb = new StringBuilder();
         try {
             buildString(sb, root, "", true);
         } catch (Exception e) {
             return String.format("Tree: size: %d %s", size, e.getMessage());
+        } finally {
+            if (metrics != null) {
+                metrics.end(TreeMetrics.Operation.TO_STRING, start);
+            }
         }
         return sb.toString();
     }
+
+    /**
+     * this writes the same as {@link #toString()} to the {@link Appendable} while it goes through the tree, so the
+     * whole text is never in memory. it does not use recursion and it keeps one prefix that only changes at the end
+     *
+     * @param out where the tree is written to, for example a {@link java.io.Writer}
+     * @throws IOException when the {@link Appendable} throws it
+     */
+    public void render(Appendable out) throws IOException {
+        render(out, Integer.MAX_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * this is the same as {@link #render(Appendable)} but it stops early. a node at {@code maxDepth} with nodes
+     * under it gets {@code " [+n]"} after its element with the number of nodes that are not written, and when
+     * {@code maxNodes} nodes are written the last line is {@code "... n more"}
+     *
+     * @param out      where the tree is written to
+     * @param maxDepth the number of levels under the {@code root} that are written
+     * @param maxNodes the number of nodes that are written
+     * @throws IOException when the {@link Appendable} throws it
+     */
+    public void render(Appendable out, int maxDepth, int maxNodes) throws IOException {
+        render(out, root, maxDepth, maxNodes);
+    }
+
+    /**
+     * this is the same as {@link #render(Appendable, int, int)} for the subtree of the {@code pointer}, the
+     * {@code pointer} is written like the {@code root}
+     *
+     * @param out      where the tree is written to
+     * @param maxDepth the number of levels under the {@code pointer} that are written
+     * @param maxNodes the number of nodes that are written
+     * @throws IOException when the {@link Appendable} throws it
+     */
+    public void renderAtPointer(Appendable out, int maxDepth, int maxNodes) throws IOException {
+        render(out, pointer, maxDepth, maxNodes);
+    }
+
+    private void render(Appendable out, Node<E> start, int maxDepth, int maxNodes) throws IOException {
+        if (maxDepth < 0 || maxNodes < 0) {
+            throw new IllegalArgumentException("maxDepth and maxNodes can not be negative");
+        }
+        StringBuilder prefix = new StringBuilder();
+        int total = size == 0 ? 1 : start.getSubtreeSize();
+        int written = 0;
+        Traversal<E> traversal = startTraversal(start, -1);
+        try {
+            while (traversal.next()) {
+                if (written == maxNodes) {
+                    out.append("... ").append(String.valueOf(total - written)).append(" more\n");
+                    return;
+                }
+                Node<E> current = traversal.node();
+                int depth = traversal.depth();
+                if (depth > 0) {
+                    Node<E> parent = current.getParent();
+                    prefix.setLength(4 * (depth - 1));
+                    prefix.append(depth == 1
+                            || traversal.indexAt(depth - 2) == parent.getParent().getChildren().size() - 1
+                            ? "    " : "│   ");
+                    out.append(prefix)
+                            .append(traversal.indexAt(depth - 1) == parent.getChildren().size() - 1 ? "└── " : "├── ");
+                }
+                out.append(String.valueOf(current.getElement()));
+                if (depth == maxDepth && !current.getChildren().isEmpty()) {
+                    int hidden = current.getSizeUnderIt();
+                    out.append(" [+").append(String.valueOf(hidden)).append("]");
+                    total -= hidden;
+                    traversal.skipChildren();
+                }
+                out.append("\n");
+                written++;
+            }
+        } finally {
+            endTraversal(traversal);
+        }
+    }
+
     public void clear() {
         root=new Node<>(null);
         pointer=root;
         size=0;
+        modCount++;
+        if (elementIndex != null) {
+            elementIndex.clear();
+        }
+        if (intervalLabels != null) {
+            intervalLabels.clear();
+        }
+        if (subtreeHashes != null) {
+            subtreeHashes.clear();
+        }
+        if (pathCache != null) {
+            pathCache.clear();
+        }
     }
 
     protected void buildString(StringBuilder sb, Node<E> node, String prefix, boolean isTail) {
+        if (metrics != null) {
+            metrics.visit(node);
+        }
         addToBuilder(sb, node, prefix, isTail);
         List<Node<E>> children = node.getChildren();
         for (int i = 0; i < children.size() - 1; i++) {
@@ -586,7 +1774,121 @@ public class Tree<E> implements Serializable {
         }
     }
 
-    protected static <E> void addToBuilder(StringBuilder sb, Node<E> node, String prefix, boolean isTail) {
+    /**
+     * this gives the {@link Traversal} of this tree when it is not used, otherwise it makes a new one. give it back
+     * with {@link #endTraversal(Traversal)} when you are done
+     *
+     * @param node      the {@link Node} where it starts
+     * @param skipChild the index of the child of the first node that it has to skip or {@code -1}
+     * @return the {@link Traversal} set to the node
+     */
+    Traversal<E> startTraversal(Node<E> node, int skipChild) {
+        Traversal<E> current = traversal;
+        if (current == null) {
+            current = new Traversal<>();
+        } else {
+            traversal = null;
+        }
+        return current.start(node, skipChild);
+    }
+
+    void endTraversal(Traversal<E> used) {
+        used.end();
+        traversal = used;
+    }
+
+    /**
+     * this puts other nodes in the tree, it is used when a tree is read
+     *
+     * @param root    the new {@code root}
+     * @param size    the number of nodes under the {@code root}, the {@code root} included
+     * @param pointer the new {@code pointer}
+     */
+    void replaceNodes(Node<E> root, int size, Node<E> pointer) {
+        this.root = root;
+        this.size = size;
+        this.pointer = pointer;
+        modCount++;
+        if (pathCache != null) {
+            pathCache.clear();
+        }
+        if (elementIndex != null) {
+            elementIndex.clear();
+            if (size > 0) {
+                elementIndex.addSubtree(root);
+            }
+        }
+        if (intervalLabels != null) {
+            intervalLabels.clear();
+            if (size > 0) {
+                intervalLabels.labelAll(root);
+            }
+        }
+        if (subtreeHashes != null) {
+            subtreeHashes.clear();
+        }
+    }
+
+    /**
+     * it writes the nodes without recursion in the format of {@link TreeCodec}, the elements are written with
+     * {@link ObjectOutputStream#writeObject(Object)}
+     *
+     * @serialData the bits of the features that are turned on, the {@code size}, the index of the {@code pointer} and for every
+     * node the number of children and the element
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        int features = 0;
+        if (elementIndex != null) {
+            features |= ELEMENT_INDEX;
+        }
+        if (intervalLabels != null) {
+            features |= INTERVAL_LABELS;
+        }
+        if (subtreeHashes != null) {
+            features |= SUBTREE_HASHES;
+        }
+        out.writeByte(features);
+        TreeCodec.writeNodes(out, this, new ObjectSerializer<>());
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        int features = in.readByte();
+        TreeCodec.readNodes(in, this, new ObjectSerializer<>());
+        if ((features & ELEMENT_INDEX) != 0) {
+            enableElementIndex();
+        }
+        if ((features & INTERVAL_LABELS) != 0) {
+            enableIntervalLabels();
+        }
+        if ((features & SUBTREE_HASHES) != 0) {
+            enableSubtreeHashes();
+        }
+    }
+
+    /**
+     * the elements of a serialized tree are written as objects, so they only work with an
+     * {@link ObjectOutputStream} and {@link ObjectInputStream}
+     */
+    private static class ObjectSerializer<E> implements ElementSerializer<E> {
+        @Override
+        public void write(DataOutput out, E e) throws IOException {
+            ((ObjectOutput) out).writeObject(e);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E read(DataInput in) throws IOException {
+            try {
+                return (E) ((ObjectInput) in).readObject();
+            } catch (ClassNotFoundException e) {
+                throw new InvalidClassException(e.getMessage());
+            }
+        }
+    }
+
+    protected static <E> void addToBuilder(StringBuilder sb, Node<E> node, CharSequence prefix, boolean isTail) {
         if (node.getParent() != null) {
             sb.append(prefix).append(isTail ? "└── " : "├── ").append(node.getElement()).append("\n");
         } else {
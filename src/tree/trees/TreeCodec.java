@@ -0,0 +1,238 @@
+package tree.trees;
+
+import tree.Node;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+/**
+ * this writes a {@link Tree} in a compact binary format and reads it back, without recursion so also a very deep
+ * tree can be written.
+ *
+ * <p>the format is a header ({@link #MAGIC} and {@link #VERSION}), the {@code size} of the tree, the index of the
+ * {@code pointer} in the order of {@link Tree#toArray()} and then for every node in that same order the number of
+ * children and the element. the numbers are written as a var int so a node with a few children costs one byte, the
+ * elements are written by an {@link ElementSerializer}. when it reads the children of a node always come right after
+ * it, so it only has to keep a stack of the nodes that still miss children</p>
+ *
+ * <p>the streams and channels are not closed, and a stream can have more data after the tree</p>
+ *
+ * @param <E> the type of elements held in the tree
+ * @see ElementSerializer
+ */
+public final class TreeCodec<E> {
+    /**
+     * the first bytes of a tree, {@code "TREE"} in ASCII
+     */
+    public static final int MAGIC = 0x54524545;
+    public static final int VERSION = 1;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final ElementSerializer<E> serializer;
+
+    /**
+     * @param serializer the serializer for the elements
+     */
+    public TreeCodec(ElementSerializer<E> serializer) {
+        this.serializer = serializer;
+    }
+
+    /**
+     * @param tree the tree you want to write
+     * @param out  the stream, it is flushed but not closed
+     * @throws IOException when the stream throws it
+     */
+    public void write(Tree<? extends E> tree, OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        writeNodes(data, tree, serializer);
+        data.flush();
+    }
+
+    /**
+     * @see #write(Tree, OutputStream)
+     */
+    public void write(Tree<? extends E> tree, WritableByteChannel channel) throws IOException {
+        write(tree, Channels.newOutputStream(channel));
+    }
+
+    /**
+     * @param in the stream
+     * @return a new {@link Tree} with the nodes and the {@code pointer} that were written
+     * @throws IOException when the stream throws it or it is not a tree that was written by this codec
+     */
+    public Tree<E> read(InputStream in) throws IOException {
+        return read(in, new Tree<>());
+    }
+
+    /**
+     * @see #read(InputStream)
+     */
+    public Tree<E> read(ReadableByteChannel channel) throws IOException {
+        return read(Channels.newInputStream(channel));
+    }
+
+    /**
+     * this is the same as {@link #read(InputStream)} but it puts the nodes in the given tree, so it can also read
+     * an {@link AdvancedTree}. the nodes that were in the tree are removed.
+     *
+     * <p>it reads ahead in a buffer, so after this the stream can be further than the end of the tree</p>
+     *
+     * @param in   the stream
+     * @param tree the tree that gets the nodes
+     * @param <T>  the type of the tree
+     * @return the given tree
+     * @throws IOException when the stream throws it or it is not a tree that was written by this codec
+     */
+    public <T extends Tree<E>> T read(InputStream in, T tree) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in, BUFFER_SIZE));
+        if (data.readInt() != MAGIC) {
+            throw new StreamCorruptedException("the stream does not start with a tree");
+        }
+        int version = data.readUnsignedByte();
+        if (version != VERSION) {
+            throw new StreamCorruptedException("unknown version " + version);
+        }
+        readNodes(data, tree, serializer);
+        return tree;
+    }
+
+    /**
+     * @see #read(InputStream, Tree)
+     */
+    public <T extends Tree<E>> T read(ReadableByteChannel channel, T tree) throws IOException {
+        return read(Channels.newInputStream(channel), tree);
+    }
+
+    /**
+     * this writes the {@code size}, the {@code pointer} and the nodes without a header, {@link Tree} uses it for
+     * its own serialization
+     */
+    static <E> void writeNodes(DataOutput out, Tree<E> tree, ElementSerializer<? super E> serializer)
+            throws IOException {
+        writeVarInt(out, tree.size);
+        if (tree.size == 0) {
+            return;
+        }
+        writeVarInt(out, pointerIndex(tree));
+        Traversal<E> traversal = tree.startTraversal(tree.root, -1);
+        try {
+            while (traversal.next()) {
+                Node<E> node = traversal.node();
+                writeVarInt(out, node.getChildren().size());
+                serializer.write(out, node.getElement());
+            }
+        } finally {
+            tree.endTraversal(traversal);
+        }
+    }
+
+    /**
+     * this reads what {@link #writeNodes} wrote and puts it in the tree
+     */
+    static <E> void readNodes(DataInput in, Tree<E> tree, ElementSerializer<? extends E> serializer)
+            throws IOException {
+        int size = readVarInt(in);
+        Node<E> root = new Node<>(null);
+        if (size == 0) {
+            tree.replaceNodes(root, 0, root);
+            return;
+        }
+        int pointerIndex = readVarInt(in);
+        Node<E> pointer = root;
+        Node<E>[] parents = newNodes(16);
+        int[] remaining = new int[16];
+        int depth = 0;
+        int count = 1;
+        int children = readVarInt(in);
+        root.setElement(serializer.read(in));
+        if (children > 0) {
+            root.getChildren().ensureCapacity(Math.min(children, size - count));
+            parents[0] = root;
+            remaining[0] = children;
+            depth = 1;
+        }
+        while (depth > 0) {
+            Node<E> parent = parents[depth - 1];
+            if (--remaining[depth - 1] == 0) {
+                parents[--depth] = null;
+            }
+            if (count == size) {
+                throw new StreamCorruptedException("the tree has more nodes than its size");
+            }
+            children = readVarInt(in);
+            Node<E> node = new Node<>(serializer.read(in), parent);
+            parent.addChild(node);
+            if (count++ == pointerIndex) {
+                pointer = node;
+            }
+            if (children > 0) {
+                if (depth == parents.length) {
+                    parents = Arrays.copyOf(parents, depth * 2);
+                    remaining = Arrays.copyOf(remaining, depth * 2);
+                }
+                node.getChildren().ensureCapacity(Math.min(children, size - count));
+                parents[depth] = node;
+                remaining[depth++] = children;
+            }
+        }
+        if (count != size) {
+            throw new StreamCorruptedException("the tree has less nodes than its size");
+        }
+        tree.replaceNodes(root, size, pointer);
+    }
+
+    /**
+     * @return the index of the {@code pointer} in the order of {@link Tree#toArray()} or {@code 0} when the
+     * {@code pointer} is not in the tree anymore
+     */
+    private static <E> int pointerIndex(Tree<E> tree) {
+        for (Node<E> node = tree.pointer; node.getParent() != null; node = node.getParent()) {
+            if (node.getIndex() < 0) {
+                return 0;
+            }
+        }
+        return tree.pointer.getPreOrderIndex();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <E> Node<E>[] newNodes(int length) {
+        return new Node[length];
+    }
+
+    private static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                if (value < 0) {
+                    break;
+                }
+                return value;
+            }
+        }
+        throw new StreamCorruptedException("invalid number in the stream");
+    }
+}
@@ -0,0 +1,521 @@
+package tree.trees;
+
+import tree.Node;
+
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.ToLongFunction;
+
+/**
+ * the changes that turn one {@link Tree} into another. it is a list of {@link Edit}s that add, remove and move
+ * subtrees and change elements, every edit has an absolute path in the tree as it is after the edits before it, so
+ * sending the diff costs as much as the changes and not as much as the whole tree.
+ *
+ * <p>the trees are compared from the {@code root} down. every subtree gets a hash as explained in
+ * {@link SubtreeHash}, a tree that keeps its hashes with {@link Tree#enableSubtreeHashes()} only makes the hashes
+ * that changed, otherwise they are made for the whole tree. when two nodes have the same hash and the same elements
+ * under them nothing under them is compared. the children of two nodes are matched first on equal subtrees, then on
+ * equal elements and the rest in their order. the children that are not matched are removed or added. the matched
+ * children that keep the longest run in the same order stay where they are and the others are moved, every added or
+ * moved child is put right after the child that comes before it in the new tree. the indexes of the children are
+ * counted in a Fenwick tree, so a node with {@code k} children costs {@code O(k log k)}</p>
+ *
+ * <p>a move only moves a child between the other children of the same {@code parent}, a subtree that moves to
+ * another {@code parent} is removed and added again</p>
+ *
+ * @param <E> the type of elements held in the trees
+ * @see Tree
+ */
+public final class TreeDiff<E> implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final List<Edit<E>> edits;
+
+    private TreeDiff(List<Edit<E>> edits) {
+        this.edits = Collections.unmodifiableList(edits);
+    }
+
+    /**
+     * this compares the trees without recursion, the trees should not be changed while they are compared
+     *
+     * @param from the old tree
+     * @param to   the new tree
+     * @return the changes that turn the old tree into the new tree
+     */
+    public static <E> TreeDiff<E> between(Tree<E> from, Tree<E> to) {
+        List<Edit<E>> edits = new ArrayList<>();
+        if (to.size == 0) {
+            if (from.size > 0) {
+                edits.add(new Edit<>(Edit.Type.DELETE, new int[0], -1, null, null));
+            }
+            return new TreeDiff<>(edits);
+        }
+        if (from.size == 0) {
+            edits.add(new Edit<>(Edit.Type.INSERT, new int[0], -1, null, subtree(to, to.root)));
+            return new TreeDiff<>(edits);
+        }
+        ToLongFunction<Node<E>> fromHashes = hashes(from);
+        ToLongFunction<Node<E>> toHashes = hashes(to);
+        ArrayDeque<Pair<E>> pairs = new ArrayDeque<>();
+        pairs.push(new Pair<>(from.root, to.root, new int[0]));
+        while (!pairs.isEmpty()) {
+            Pair<E> pair = pairs.pop();
+            if (fromHashes.applyAsLong(pair.from) == toHashes.applyAsLong(pair.to)
+                    && SubtreeHash.sameSubtree(pair.from, pair.to)) {
+                continue;
+            }
+            if (!Objects.equals(pair.from.getElement(), pair.to.getElement())) {
+                edits.add(new Edit<>(Edit.Type.SET, pair.path, -1, pair.to.getElement(), null));
+            }
+            diffChildren(pair, fromHashes, toHashes, to, edits, pairs);
+        }
+        return new TreeDiff<>(edits);
+    }
+
+    /**
+     * @return the changes in the order they have to be done
+     */
+    public List<Edit<E>> getEdits() {
+        return edits;
+    }
+
+    /**
+     * @return {@code true} when the trees were the same
+     */
+    public boolean isEmpty() {
+        return edits.isEmpty();
+    }
+
+    /**
+     * @return the number of edits
+     */
+    public int size() {
+        return edits.size();
+    }
+
+    /**
+     * this does the edits on the tree. an edit walks its path, and an edit that adds, removes or moves a child moves
+     * the other children of its {@code parent} and looks at every path in the {@link PathCache} when it is on, so it
+     * costs {@code O(edits * (fan-out + path length + cache size))} and not as much as the tree. the {@code pointer}
+     * goes to the {@code root} when its node was removed
+     *
+     * @param tree a tree that is the same as the old tree of the diff
+     * @throws IllegalArgumentException when a path of an edit is not in the tree
+     */
+    public void apply(Tree<E> tree) {
+        for (Edit<E> edit : edits) {
+            edit.apply(tree);
+        }
+        Node<E> node = tree.pointer;
+        while (node.getParent() != null && node.getIndex() != -1) {
+            node = node.getParent();
+        }
+        if (node != tree.root) {
+            tree.setPointerToRoot();
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("TreeDiff: ").append(edits.size()).append(" edits");
+        for (Edit<E> edit : edits) {
+            sb.append("\n").append(edit);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * it matches the children of the pair, adds the edits for the children and puts the matched children that are
+     * not the same on the stack
+     */
+    private static <E> void diffChildren(Pair<E> pair, ToLongFunction<Node<E>> fromHashes,
+                                         ToLongFunction<Node<E>> toHashes, Tree<E> to, List<Edit<E>> edits, ArrayDeque<Pair<E>> pairs) {
+        List<Node<E>> oldChildren = pair.from.getChildren();
+        List<Node<E>> newChildren = pair.to.getChildren();
+        int m = oldChildren.size();
+        int k = newChildren.size();
+        int[] source = new int[k];
+        boolean[] exact = new boolean[k];
+        boolean[] used = new boolean[m];
+        Arrays.fill(source, -1);
+
+        Map<Long, ArrayDeque<Integer>> byHash = new HashMap<>();
+        for (int i = 0; i < m; i++) {
+            byHash.computeIfAbsent(fromHashes.applyAsLong(oldChildren.get(i)), h -> new ArrayDeque<>()).add(i);
+        }
+        for (int j = 0; j < k; j++) {
+            ArrayDeque<Integer> candidates = byHash.get(toHashes.applyAsLong(newChildren.get(j)));
+            if (candidates == null) {
+                continue;
+            }
+            for (Integer i : candidates) {
+                if (SubtreeHash.sameSubtree(oldChildren.get(i), newChildren.get(j))) {
+                    candidates.remove(i);
+                    source[j] = i;
+                    exact[j] = true;
+                    used[i] = true;
+                    break;
+                }
+            }
+        }
+        Map<E, ArrayDeque<Integer>> byElement = new HashMap<>();
+        for (int i = 0; i < m; i++) {
+            if (!used[i]) {
+                byElement.computeIfAbsent(oldChildren.get(i).getElement(), e -> new ArrayDeque<>()).add(i);
+            }
+        }
+        for (int j = 0; j < k; j++) {
+            ArrayDeque<Integer> candidates = byElement.get(newChildren.get(j).getElement());
+            if (source[j] == -1 && candidates != null && !candidates.isEmpty()) {
+                source[j] = candidates.poll();
+                used[source[j]] = true;
+            }
+        }
+        int next = 0;
+        for (int j = 0; j < k; j++) {
+            if (source[j] == -1) {
+                while (next < m && used[next]) {
+                    next++;
+                }
+                if (next < m) {
+                    source[j] = next;
+                    used[next] = true;
+                }
+            }
+        }
+
+        for (int i = m - 1; i >= 0; i--) {
+            if (!used[i]) {
+                edits.add(new Edit<>(Edit.Type.DELETE, childPath(pair.path, i), -1, null, null));
+            }
+        }
+        boolean[] stays = longestIncreasingRun(source);
+        // every kept old child has a cell and every child that is moved or added has a cell right after the child
+        // that comes before it in the new tree, so the cells are in the order of the children at every step and the
+        // index of a child is the number of full cells before its cell
+        int[] oldCells = new int[m];
+        int[] newCells = new int[k];
+        int cell = 0;
+        for (int j = 0; j < k && !stays[j]; j++) {
+            newCells[j] = cell++;
+        }
+        int[] targets = new int[m];
+        for (int j = 0; j < k; j++) {
+            if (source[j] != -1) {
+                targets[source[j]] = j;
+            }
+        }
+        for (int i = 0; i < m; i++) {
+            if (used[i]) {
+                oldCells[i] = cell++;
+                if (stays[targets[i]]) {
+                    for (int j = targets[i] + 1; j < k && !stays[j]; j++) {
+                        newCells[j] = cell++;
+                    }
+                }
+            }
+        }
+        Cells cells = new Cells(cell);
+        for (int i = 0; i < m; i++) {
+            if (used[i]) {
+                cells.add(oldCells[i], 1);
+            }
+        }
+        for (int j = 0; j < k; j++) {
+            if (stays[j]) {
+                continue;
+            }
+            if (source[j] != -1) {
+                int position = cells.before(oldCells[source[j]]);
+                cells.add(oldCells[source[j]], -1);
+                int target = cells.before(newCells[j]);
+                if (position != target) {
+                    edits.add(new Edit<>(Edit.Type.MOVE, childPath(pair.path, position), target, null, null));
+                }
+            } else {
+                edits.add(new Edit<>(Edit.Type.INSERT, childPath(pair.path, cells.before(newCells[j])), -1, null,
+                        subtree(to, newChildren.get(j))));
+            }
+            cells.add(newCells[j], 1);
+        }
+        for (int j = k - 1; j >= 0; j--) {
+            if (source[j] != -1 && !exact[j]) {
+                pairs.push(new Pair<>(oldChildren.get(source[j]), newChildren.get(j), childPath(pair.path, j)));
+            }
+        }
+    }
+
+    /**
+     * @return for every new child if it is in the longest run of old indexes that only goes up, the added
+     * children are never in it
+     */
+    private static boolean[] longestIncreasingRun(int[] source) {
+        int k = source.length;
+        int[] tails = new int[k];
+        int[] previous = new int[k];
+        int length = 0;
+        for (int j = 0; j < k; j++) {
+            if (source[j] == -1) {
+                continue;
+            }
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (source[tails[middle]] < source[j]) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            previous[j] = low == 0 ? -1 : tails[low - 1];
+            tails[low] = j;
+            if (low == length) {
+                length++;
+            }
+        }
+        boolean[] stays = new boolean[k];
+        for (int j = length == 0 ? -1 : tails[length - 1]; j != -1; j = previous[j]) {
+            stays[j] = true;
+        }
+        return stays;
+    }
+
+    /**
+     * @return the hashes the tree keeps when they are turned on, otherwise the hashes of all its nodes are made
+     */
+    private static <E> ToLongFunction<Node<E>> hashes(Tree<E> tree) {
+        if (tree.subtreeHashes != null) {
+            return tree.subtreeHashes::hash;
+        }
+        Map<Node<E>, Long> hashes = SubtreeHash.hashAll(tree.root);
+        return hashes::get;
+    }
+
+    private static <E> Tree<E> subtree(Tree<E> tree, Node<E> node) {
+        Tree<E> subtree = new Tree<>();
+        Node<E> copy = tree.copySubtree(node, null);
+        subtree.replaceNodes(copy, copy.getSubtreeSize(), copy);
+        return subtree;
+    }
+
+    private static int[] childPath(int[] path, int index) {
+        int[] childPath = Arrays.copyOf(path, path.length + 1);
+        childPath[path.length] = index;
+        return childPath;
+    }
+
+    /**
+     * a Fenwick tree that counts the full cells, it finds the index of a child in {@code O(log k)}
+     */
+    private static final class Cells {
+        private final int[] counts;
+
+        Cells(int size) {
+            counts = new int[size + 1];
+        }
+
+        void add(int cell, int count) {
+            for (int i = cell + 1; i < counts.length; i += i & -i) {
+                counts[i] += count;
+            }
+        }
+
+        /**
+         * @return the number of full cells before the cell
+         */
+        int before(int cell) {
+            int count = 0;
+            for (int i = cell; i > 0; i -= i & -i) {
+                count += counts[i];
+            }
+            return count;
+        }
+    }
+
+    /**
+     * a node of the old tree and the node of the new tree at the same path after the edits of its parents
+     */
+    private static final class Pair<E> {
+        private final Node<E> from;
+        private final Node<E> to;
+        private final int[] path;
+
+        Pair(Node<E> from, Node<E> to, int[] path) {
+            this.from = from;
+            this.to = to;
+            this.path = path;
+        }
+    }
+
+    /**
+     * one change of a {@link TreeDiff}
+     *
+     * @param <E> the type of elements held in the trees
+     */
+    public static final class Edit<E> implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        public enum Type {
+            /**
+             * the subtree is added at the path, the children from that index on move one place up. an empty path
+             * puts the subtree in the place of the whole tree
+             */
+            INSERT,
+            /**
+             * the node at the path and everything under it is removed, an empty path clears the tree
+             */
+            DELETE,
+            /**
+             * the node at the path is taken out of the children of its {@code parent} and put back at the index
+             */
+            MOVE,
+            /**
+             * the element of the node at the path is changed
+             */
+            SET
+        }
+
+        private final Type type;
+        private final int[] path;
+        private final int index;
+        private final E element;
+        private final Tree<E> subtree;
+
+        Edit(Type type, int[] path, int index, E element, Tree<E> subtree) {
+            this.type = type;
+            this.path = path;
+            this.index = index;
+            this.element = element;
+            this.subtree = subtree;
+        }
+
+        public Type getType() {
+            return type;
+        }
+
+        /**
+         * @return the absolute path of the node the edit changes
+         */
+        public List<Integer> getPath() {
+            List<Integer> list = new ArrayList<>(path.length);
+            for (int step : path) {
+                list.add(step);
+            }
+            return list;
+        }
+
+        /**
+         * @return the new index of a {@link Type#MOVE} or {@code -1}
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * @return the new element of a {@link Type#SET} or {@code null}
+         */
+        public E getElement() {
+            return element;
+        }
+
+        /**
+         * @return a copy of the subtree of an {@link Type#INSERT} or {@code null}
+         */
+        public Tree<E> getSubtree() {
+            return subtree == null ? null : subtree.makeCopyOfTree();
+        }
+
+        void apply(Tree<E> tree) {
+            if (path.length == 0) {
+                applyToRoot(tree);
+                return;
+            }
+            Node<E> parent = node(tree, path.length - 1);
+            int last = path[path.length - 1];
+            int children = parent.getChildren().size();
+            if (last < 0 || last > children || (type != Type.INSERT && last == children)) {
+                throw notInTree();
+            }
+            switch (type) {
+                case INSERT:
+                    tree.insertSubtree(parent, last, tree.copySubtree(subtree.root, parent));
+                    break;
+                case DELETE:
+                    tree.removeNodeFromTree(parent.getChildren().get(last));
+                    break;
+                case MOVE:
+                    if (index < 0 || index >= children) {
+                        throw new IllegalArgumentException("invalid index " + index + " for " + this);
+                    }
+                    tree.moveChild(parent, last, index);
+                    break;
+                default:
+                    tree.setElementOfNode(parent.getChildren().get(last), element);
+            }
+        }
+
+        private void applyToRoot(Tree<E> tree) {
+            switch (type) {
+                case INSERT:
+                    Node<E> copy = tree.copySubtree(subtree.root, null);
+                    tree.replaceNodes(copy, copy.getSubtreeSize(), copy);
+                    break;
+                case DELETE:
+                    tree.clear();
+                    break;
+                case SET:
+                    if (tree.size == 0) {
+                        throw notInTree();
+                    }
+                    tree.setElementOfNode(tree.root, element);
+                    break;
+                default:
+                    throw notInTree();
+            }
+        }
+
+        /**
+         * @return the node at the first steps of the path
+         */
+        private Node<E> node(Tree<E> tree, int steps) {
+            if (tree.size == 0) {
+                throw notInTree();
+            }
+            Node<E> node = tree.root;
+            for (int i = 0; i < steps; i++) {
+                List<Node<E>> children = node.getChildren();
+                if (path[i] < 0 || path[i] >= children.size()) {
+                    throw notInTree();
+                }
+                node = children.get(path[i]);
+            }
+            return node;
+        }
+
+        private IllegalArgumentException notInTree() {
+            return new IllegalArgumentException("the path of " + this + " is not in the tree");
+        }
+
+        @Override
+        public String toString() {
+            switch (type) {
+                case INSERT:
+                    return "INSERT " + Arrays.toString(path) + " size: " + subtree.size;
+                case MOVE:
+                    return "MOVE " + Arrays.toString(path) + " to " + index;
+                case SET:
+                    return "SET " + Arrays.toString(path) + " " + element;
+                default:
+                    return "DELETE " + Arrays.toString(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package tree.trees;
+
+import tree.Node;
+
+import java.util.ArrayDeque;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * the iterators of a {@link Tree}. they only go to the next node when it is asked, so the elements are never copied
+ * into a list, and they don't use recursion.
+ *
+ * <p>when the tree is changed while it is iterated the next call throws a
+ * {@link ConcurrentModificationException}</p>
+ *
+ * @param <E> the type of elements held in the tree
+ * @see Tree#preOrderIterator()
+ * @see Tree#postOrderIterator()
+ * @see Tree#levelOrderIterator()
+ */
+abstract class TreeIterator<E> implements Iterator<E> {
+    private final Tree<E> tree;
+    private final int expectedModCount;
+    private boolean advanced;
+    private boolean hasNext;
+
+    TreeIterator(Tree<E> tree) {
+        this.tree = tree;
+        expectedModCount = tree.modCount;
+    }
+
+    /**
+     * @return {@code true} when it could go to the next node
+     */
+    abstract boolean advance();
+
+    /**
+     * @return the element of the node it is on
+     */
+    abstract E current();
+
+    @Override
+    public boolean hasNext() {
+        checkForModification();
+        if (!advanced) {
+            hasNext = tree.getSize() > 0 && advance();
+            advanced = true;
+        }
+        return hasNext;
+    }
+
+    @Override
+    public E next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        advanced = false;
+        return current();
+    }
+
+    private void checkForModification() {
+        if (tree.modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    /**
+     * every node comes before its children
+     */
+    static final class PreOrder<E> extends TreeIterator<E> {
+        private final Traversal<E> traversal;
+
+        PreOrder(Tree<E> tree, Node<E> node) {
+            super(tree);
+            traversal = new Traversal<E>().start(node, -1);
+        }
+
+        @Override
+        boolean advance() {
+            return traversal.next();
+        }
+
+        @Override
+        E current() {
+            return traversal.node().getElement();
+        }
+    }
+
+    /**
+     * every node comes after its children
+     */
+    static final class PostOrder<E> extends TreeIterator<E> {
+        private final Traversal<E> traversal;
+
+        PostOrder(Tree<E> tree, Node<E> node) {
+            super(tree);
+            traversal = new Traversal<E>().start(node, -1);
+        }
+
+        @Override
+        boolean advance() {
+            return traversal.nextPostOrder();
+        }
+
+        @Override
+        E current() {
+            return traversal.node().getElement();
+        }
+    }
+
+    /**
+     * the nodes level by level, it only keeps the nodes of the next levels it has not visited yet
+     */
+    static final class LevelOrder<E> extends TreeIterator<E> {
+        private final ArrayDeque<Node<E>> queue = new ArrayDeque<>();
+        private Node<E> current;
+
+        LevelOrder(Tree<E> tree, Node<E> node) {
+            super(tree);
+            queue.add(node);
+        }
+
+        @Override
+        boolean advance() {
+            current = queue.poll();
+            if (current == null) {
+                return false;
+            }
+            queue.addAll(current.getChildren());
+            return true;
+        }
+
+        @Override
+        E current() {
+            return current.getElement();
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package tree.trees;
+
+import tree.Node;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * this builds a whole {@link Tree} at once from arrays, it is a lot faster than adding the elements one by one with
+ * {@link Tree#insert(Object, boolean)} and moving the {@code pointer} around.
+ *
+ * <p>every input is first turned into the index of the {@code parent} of every element. from that it counts the
+ * children of every node, so the list of children of a {@link Node} gets the right capacity before the children are
+ * added and never has to grow. the children of a node are in the same order as they are in the input. nothing is
+ * done recursively, so it will not generate a {@link StackOverflowError} on a deep tree, and the {@code pointer}
+ * of the new tree is at the {@code root}</p>
+ *
+ * <p>when the loader has a {@link ForkJoinPool} the subtrees with more than {@link ParallelOperations#THRESHOLD}
+ * nodes are built by other threads, every thread only adds nodes to its own subtree</p>
+ *
+ * @see TreeCodec
+ */
+public final class TreeLoader {
+    private final ForkJoinPool pool;
+
+    /**
+     * a loader that builds the tree with the thread that calls it
+     */
+    public TreeLoader() {
+        this(null);
+    }
+
+    /**
+     * @param pool the pool that builds the big subtrees or {@code null} to build everything with the thread that
+     *             calls it
+     */
+    public TreeLoader(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * @param elements the elements of the nodes
+     * @param parents  for every element the index of the element of its {@code parent} or {@code -1} for the
+     *                 {@code root}, there has to be one {@code root}
+     * @return a new {@link Tree} with the elements
+     * @throws IllegalArgumentException when the arrays have a different length, there is not exactly one
+     *                                  {@code root} or the parents have a loop
+     */
+    public <E> Tree<E> fromParentIndexes(List<? extends E> elements, int[] parents) {
+        return fromParentIndexes(elements, parents, new Tree<>());
+    }
+
+    /**
+     * this is the same as {@link #fromParentIndexes(List, int[])} but it puts the nodes in the given tree, so it can
+     * also build an {@link AdvancedTree}. the nodes that were in the tree are removed
+     *
+     * @param <T> the type of the tree
+     * @return the given tree
+     */
+    public <E, T extends Tree<E>> T fromParentIndexes(List<? extends E> elements, int[] parents, T tree) {
+        if (elements.size() != parents.length) {
+            throw new IllegalArgumentException(
+                    "there are " + elements.size() + " elements and " + parents.length + " parents");
+        }
+        build(elements, parents, tree);
+        return tree;
+    }
+
+    /**
+     * @param elements    the elements in the order of {@link Tree#toArray()}, every element before its children
+     * @param childCounts for every element the number of children, like {@link TreeCodec} writes it
+     * @return a new {@link Tree} with the elements
+     * @throws IllegalArgumentException when the arrays have a different length or the counts don't match the
+     *                                  number of elements
+     */
+    public <E> Tree<E> fromPreOrder(List<? extends E> elements, int[] childCounts) {
+        return fromPreOrder(elements, childCounts, new Tree<>());
+    }
+
+    /**
+     * @see #fromPreOrder(List, int[])
+     * @see #fromParentIndexes(List, int[], Tree)
+     */
+    public <E, T extends Tree<E>> T fromPreOrder(List<? extends E> elements, int[] childCounts, T tree) {
+        if (elements.size() != childCounts.length) {
+            throw new IllegalArgumentException(
+                    "there are " + elements.size() + " elements and " + childCounts.length + " child counts");
+        }
+        build(elements, parentsFromChildCounts(childCounts), tree);
+        return tree;
+    }
+
+    /**
+     * this is for input where the depth of a line is shown with its indentation
+     *
+     * @param elements the elements in the order of {@link Tree#toArray()}, every element before its children
+     * @param depths   for every element the number of nodes above it, only the first element has depth {@code 0}
+     *                 and an element is at most one deeper than the element before it
+     * @return a new {@link Tree} with the elements
+     * @throws IllegalArgumentException when the arrays have a different length or a depth is not possible
+     */
+    public <E> Tree<E> fromDepths(List<? extends E> elements, int[] depths) {
+        return fromDepths(elements, depths, new Tree<>());
+    }
+
+    /**
+     * @see #fromDepths(List, int[])
+     * @see #fromParentIndexes(List, int[], Tree)
+     */
+    public <E, T extends Tree<E>> T fromDepths(List<? extends E> elements, int[] depths, T tree) {
+        if (elements.size() != depths.length) {
+            throw new IllegalArgumentException(
+                    "there are " + elements.size() + " elements and " + depths.length + " depths");
+        }
+        build(elements, parentsFromDepths(depths), tree);
+        return tree;
+    }
+
+    private static int[] parentsFromChildCounts(int[] childCounts) {
+        int n = childCounts.length;
+        int[] parents = new int[n];
+        int[] stack = new int[16];
+        int[] remaining = new int[16];
+        int depth = 0;
+        for (int i = 0; i < n; i++) {
+            if (i > 0 && depth == 0) {
+                throw new IllegalArgumentException("the child counts end before element " + i);
+            }
+            if (childCounts[i] < 0) {
+                throw new IllegalArgumentException("negative child count at " + i);
+            }
+            if (depth == 0) {
+                parents[i] = -1;
+            } else {
+                parents[i] = stack[depth - 1];
+                if (--remaining[depth - 1] == 0) {
+                    depth--;
+                }
+            }
+            if (childCounts[i] > 0) {
+                if (depth == stack.length) {
+                    stack = Arrays.copyOf(stack, depth * 2);
+                    remaining = Arrays.copyOf(remaining, depth * 2);
+                }
+                stack[depth] = i;
+                remaining[depth++] = childCounts[i];
+            }
+        }
+        if (depth > 0) {
+            throw new IllegalArgumentException("the child counts need more elements than " + n);
+        }
+        return parents;
+    }
+
+    private static int[] parentsFromDepths(int[] depths) {
+        int n = depths.length;
+        int[] parents = new int[n];
+        int[] stack = new int[16];
+        for (int i = 0; i < n; i++) {
+            int depth = depths[i];
+            if (i == 0 ? depth != 0 : depth < 1 || depth > depths[i - 1] + 1) {
+                throw new IllegalArgumentException("invalid depth " + depth + " at " + i);
+            }
+            if (depth == stack.length) {
+                stack = Arrays.copyOf(stack, depth * 2);
+            }
+            parents[i] = depth == 0 ? -1 : stack[depth - 1];
+            stack[depth] = i;
+        }
+        return parents;
+    }
+
+    /**
+     * it puts the children of every node next to each other in {@code children}, the children of node {@code i} are
+     * from {@code start[i]} to {@code start[i + 1]}
+     */
+    private <E> void build(List<? extends E> elements, int[] parents, Tree<E> tree) {
+        int n = parents.length;
+        if (n == 0) {
+            Node<E> root = new Node<>(null);
+            tree.replaceNodes(root, 0, root);
+            return;
+        }
+        int rootIndex = -1;
+        int[] start = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            int parent = parents[i];
+            if (parent == -1) {
+                if (rootIndex != -1) {
+                    throw new IllegalArgumentException("there are two roots: " + rootIndex + " and " + i);
+                }
+                rootIndex = i;
+            } else if (parent < 0 || parent >= n || parent == i) {
+                throw new IllegalArgumentException("invalid parent " + parent + " at " + i);
+            } else {
+                start[parent + 1]++;
+            }
+        }
+        if (rootIndex == -1) {
+            throw new IllegalArgumentException("there is no root");
+        }
+        for (int i = 0; i < n; i++) {
+            start[i + 1] += start[i];
+        }
+        int[] children = new int[n - 1];
+        int[] next = new int[n];
+        System.arraycopy(start, 0, next, 0, n);
+        for (int i = 0; i < n; i++) {
+            if (parents[i] != -1) {
+                children[next[parents[i]]++] = i;
+            }
+        }
+        Layout<E> layout = new Layout<>(elements, start, children);
+        Node<E> root = layout.newNode(rootIndex, null);
+        if (pool == null) {
+            if (layout.buildSubtree(root, rootIndex) != n) {
+                throw new IllegalArgumentException("the parents have a loop");
+            }
+        } else {
+            int[] sizes = layout.subtreeSizes(rootIndex);
+            if (sizes[rootIndex] != n) {
+                throw new IllegalArgumentException("the parents have a loop");
+            }
+            pool.invoke(new BuildTask<>(layout, sizes, root, rootIndex));
+        }
+        tree.replaceNodes(root, n, root);
+    }
+
+    /**
+     * the input with the children of every node next to each other, as made by {@link #build}
+     */
+    private static final class Layout<E> {
+        private final List<? extends E> elements;
+        private final int[] start;
+        private final int[] children;
+
+        Layout(List<? extends E> elements, int[] start, int[] children) {
+            this.elements = elements instanceof RandomAccess ? elements : new ArrayList<>(elements);
+            this.start = start;
+            this.children = children;
+        }
+
+        Node<E> newNode(int index, Node<E> parent) {
+            Node<E> node = new Node<>(elements.get(index), parent);
+            node.getChildren().ensureCapacity(start[index + 1] - start[index]);
+            return node;
+        }
+
+        /**
+         * this builds the nodes under the node with the thread that calls it
+         *
+         * @return the number of nodes in the subtree, the node included
+         */
+        int buildSubtree(Node<E> node, int index) {
+            int count = 1;
+            Node<E>[] nodes = newStack(16);
+            int[] indexes = new int[16];
+            int depth = 0;
+            nodes[depth] = node;
+            indexes[depth++] = index;
+            while (depth > 0) {
+                Node<E> parent = nodes[--depth];
+                int parentIndex = indexes[depth];
+                nodes[depth] = null;
+                for (int c = start[parentIndex]; c < start[parentIndex + 1]; c++) {
+                    int child = children[c];
+                    Node<E> childNode = newNode(child, parent);
+                    parent.addChild(childNode);
+                    count++;
+                    if (depth == nodes.length) {
+                        nodes = Arrays.copyOf(nodes, depth * 2);
+                        indexes = Arrays.copyOf(indexes, depth * 2);
+                    }
+                    nodes[depth] = childNode;
+                    indexes[depth++] = child;
+                }
+            }
+            return count;
+        }
+
+        /**
+         * @return the size of the subtree of every node that can be reached from the {@code root}, the nodes in a
+         * loop can not be reached and stay {@code 0}
+         */
+        int[] subtreeSizes(int rootIndex) {
+            int n = elements.size();
+            int[] order = new int[n];
+            int count = 0;
+            order[count++] = rootIndex;
+            for (int i = 0; i < count; i++) {
+                int node = order[i];
+                for (int c = start[node]; c < start[node + 1]; c++) {
+                    order[count++] = children[c];
+                }
+            }
+            int[] sizes = new int[n];
+            for (int i = count - 1; i >= 0; i--) {
+                int node = order[i];
+                int size = 1;
+                for (int c = start[node]; c < start[node + 1]; c++) {
+                    size += sizes[children[c]];
+                }
+                sizes[node] = size;
+            }
+            return sizes;
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private static <E> Node<E>[] newStack(int length) {
+            return new Node[length];
+        }
+    }
+
+    /**
+     * it builds the subtree of one node. the children of a node are added in the order of the input, the big
+     * subtrees get an empty node that is filled by a new task. a task only adds nodes under its own node so the
+     * tasks don't change the same {@link Node}
+     */
+    private static final class BuildTask<E> extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Layout<E> layout;
+        private final int[] sizes;
+        private final Node<E> node;
+        private final int index;
+
+        BuildTask(Layout<E> layout, int[] sizes, Node<E> node, int index) {
+            this.layout = layout;
+            this.sizes = sizes;
+            this.node = node;
+            this.index = index;
+        }
+
+        @Override
+        protected void compute() {
+            BuildTask<E>[] tasks = null;
+            int count = 0;
+            for (int c = layout.start[index]; c < layout.start[index + 1]; c++) {
+                int child = layout.children[c];
+                Node<E> childNode = layout.newNode(child, node);
+                node.addChild(childNode);
+                if (sizes[child] > ParallelOperations.THRESHOLD) {
+                    if (tasks == null) {
+                        tasks = newTasks(layout.start[index + 1] - c);
+                    }
+                    tasks[count++] = new BuildTask<>(layout, sizes, childNode, child);
+                } else {
+                    layout.buildSubtree(childNode, child);
+                }
+            }
+            if (tasks != null) {
+                invokeAll(Arrays.asList(tasks).subList(0, count));
+            }
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private static <E> BuildTask<E>[] newTasks(int length) {
+            return new BuildTask[length];
+        }
+    }
+}
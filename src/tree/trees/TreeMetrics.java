@@ -0,0 +1,388 @@
+package tree.trees;
+
+import tree.Node;
+
+import javax.management.ConstructorParameters;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * this measures the operations of one {@link Tree}: how often they are called, how long they take, how many nodes
+ * they look at and how deep they go. it is turned on with {@link Tree#enableMetrics()}.
+ *
+ * <p>when it is off the tree only checks that its {@code metrics} field is {@code null}, once for every operation
+ * and once for every node a search looks at, so it can stay in the code that is used the most</p>
+ *
+ * <p>the times and the numbers of nodes are also kept in histograms where index {@code i} counts the values from
+ * {@code 2^i} to {@code 2^(i + 1) - 1}, index {@code 0} also counts {@code 0}. the numbers can be read by another
+ * thread, for example with JMX after {@link #register(String)}, and every {@link TreeMetricsListener} is told about
+ * every operation</p>
+ *
+ * <p>{@link #getFanOutHistogram()} and {@link #getEstimatedRetainedBytes()} go through the whole tree every time
+ * they are called, so they should not be called while the tree is changed</p>
+ *
+ * @see TreeMetricsMXBean
+ */
+public final class TreeMetrics implements TreeMetricsMXBean {
+    /**
+     * the bytes of a {@link Node} and of an empty {@link java.util.ArrayList} with compressed references
+     */
+    private static final long NODE_BYTES = 40;
+    private static final long LIST_BYTES = 24;
+    private static final long ARRAY_HEADER_BYTES = 16;
+    private static final int DEFAULT_CAPACITY = 10;
+
+    /**
+     * the operations of a {@link Tree} that are measured
+     */
+    public enum Operation {
+        INSERT,
+        CONTAINS,
+        REMOVE,
+        PATH_TO_ELEMENT,
+        PATHS_TO_ELEMENT,
+        RELATIVE_PATH_TO_ELEMENT,
+        RELATIVE_PATHS_TO_ELEMENT,
+        FIND,
+        TO_LIST,
+        TO_ARRAY,
+        /**
+         * a copy counts all nodes but it does not know how deep they are
+         */
+        COPY,
+        TO_STRING
+    }
+
+    private final Tree<?> tree;
+    private final EnumMap<Operation, Counters> counters = new EnumMap<>(Operation.class);
+    private final List<TreeMetricsListener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong maxDepth = new AtomicLong();
+    private final LongAdder deepCalls = new LongAdder();
+    private volatile int deepThreshold = 1000;
+    private ObjectName objectName;
+    private int visited;
+    private int callMaxDepth;
+
+    TreeMetrics(Tree<?> tree) {
+        this.tree = tree;
+        for (Operation operation : Operation.values()) {
+            counters.put(operation, new Counters());
+        }
+    }
+
+    /**
+     * this starts measuring an operation
+     *
+     * @return the time it started
+     */
+    long begin() {
+        visited = 0;
+        callMaxDepth = 0;
+        return System.nanoTime();
+    }
+
+    /**
+     * this is called for every node the operation looks at
+     */
+    void visit(Node<?> node) {
+        visited++;
+        if (node.getDepth() > callMaxDepth) {
+            callMaxDepth = node.getDepth();
+        }
+    }
+
+    /**
+     * this ends an operation that called {@link #visit(Node)} for the nodes it looked at
+     */
+    void end(Operation operation, long start) {
+        end(operation, start, visited, callMaxDepth);
+    }
+
+    /**
+     * this ends an operation that knows how many nodes it looked at without {@link #visit(Node)}
+     */
+    void end(Operation operation, long start, int nodesVisited, int depth) {
+        long nanos = System.nanoTime() - start;
+        counters.get(operation).add(nanos, nodesVisited);
+        if (depth > maxDepth.get()) {
+            maxDepth.accumulateAndGet(depth, Math::max);
+        }
+        if (depth > deepThreshold) {
+            deepCalls.increment();
+        }
+        for (TreeMetricsListener listener : listeners) {
+            listener.operationEnded(operation, nanos, nodesVisited, depth);
+        }
+    }
+
+    public void addListener(TreeMetricsListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(TreeMetricsListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * this registers the metrics in the platform {@link MBeanServer} as {@code tree:type=Tree,name=<name>}
+     *
+     * @param name the name of the tree in JMX
+     * @return the name it is registered with
+     * @throws JMException when the name is not valid or already used
+     */
+    public ObjectName register(String name) throws JMException {
+        ObjectName newName = new ObjectName("tree:type=Tree,name=" + ObjectName.quote(name));
+        if (newName.equals(objectName)) {
+            return newName;
+        }
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, newName);
+        unregister();
+        objectName = newName;
+        return newName;
+    }
+
+    /**
+     * this removes the metrics from the platform {@link MBeanServer} when they were registered
+     *
+     * @throws JMException when it could not be removed
+     */
+    public void unregister() throws JMException {
+        if (objectName != null) {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            objectName = null;
+        }
+    }
+
+    /**
+     * @return the numbers of the operation, also when it was never called
+     */
+    public OperationStats getStats(Operation operation) {
+        return counters.get(operation).stats();
+    }
+
+    @Override
+    public Map<String, OperationStats> getOperations() {
+        Map<String, OperationStats> operations = new LinkedHashMap<>();
+        for (Map.Entry<Operation, Counters> entry : counters.entrySet()) {
+            OperationStats stats = entry.getValue().stats();
+            if (stats.getCalls() > 0) {
+                operations.put(entry.getKey().name(), stats);
+            }
+        }
+        return operations;
+    }
+
+    @Override
+    public int getMaxDepth() {
+        return (int) maxDepth.get();
+    }
+
+    @Override
+    public long getDeepCalls() {
+        return deepCalls.sum();
+    }
+
+    @Override
+    public int getDeepThreshold() {
+        return deepThreshold;
+    }
+
+    @Override
+    public void setDeepThreshold(int deepThreshold) {
+        if (deepThreshold < 0) {
+            throw new IllegalArgumentException("negative threshold: " + deepThreshold);
+        }
+        this.deepThreshold = deepThreshold;
+    }
+
+    @Override
+    public int getSize() {
+        return tree.size;
+    }
+
+    @Override
+    public long getEstimatedRetainedBytes() {
+        long bytes = 0;
+        for (Map.Entry<Integer, Long> entry : childCounts().entrySet()) {
+            int children = entry.getKey();
+            long array = children == 0 ? 0 : ARRAY_HEADER_BYTES + 4L * Math.max(children, DEFAULT_CAPACITY);
+            bytes += entry.getValue() * (NODE_BYTES + LIST_BYTES + (array + 7 & -8));
+        }
+        return bytes;
+    }
+
+    @Override
+    public SortedMap<Integer, Long> getFanOutHistogram() {
+        SortedMap<Integer, Long> histogram = new TreeMap<>();
+        for (Map.Entry<Integer, Long> entry : childCounts().entrySet()) {
+            histogram.merge(Integer.highestOneBit(entry.getKey()), entry.getValue(), Long::sum);
+        }
+        return histogram;
+    }
+
+    @Override
+    public void reset() {
+        for (Counters c : counters.values()) {
+            c.reset();
+        }
+        maxDepth.set(0);
+        deepCalls.reset();
+    }
+
+    /**
+     * @return for every number of children the number of nodes with that many children
+     */
+    private Map<Integer, Long> childCounts() {
+        return childCounts(tree);
+    }
+
+    private static <E> Map<Integer, Long> childCounts(Tree<E> tree) {
+        Map<Integer, Long> counts = new TreeMap<>();
+        if (tree.size == 0) {
+            return counts;
+        }
+        Traversal<E> traversal = new Traversal<E>().start(tree.root, -1);
+        while (traversal.next()) {
+            counts.merge(traversal.node().getChildren().size(), 1L, Long::sum);
+        }
+        traversal.end();
+        return counts;
+    }
+
+    private static int bucket(long value) {
+        return value <= 1 ? 0 : 63 - Long.numberOfLeadingZeros(value);
+    }
+
+    /**
+     * the numbers of one operation while it is measured
+     */
+    private static final class Counters {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder nodesVisited = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLong maxNodesVisited = new AtomicLong();
+        private final AtomicLongArray latencyHistogram = new AtomicLongArray(64);
+        private final AtomicLongArray nodesVisitedHistogram = new AtomicLongArray(32);
+
+        void add(long nanos, int nodesVisited) {
+            calls.increment();
+            this.nanos.add(nanos);
+            this.nodesVisited.add(nodesVisited);
+            if (nanos > maxNanos.get()) {
+                maxNanos.accumulateAndGet(nanos, Math::max);
+            }
+            if (nodesVisited > maxNodesVisited.get()) {
+                maxNodesVisited.accumulateAndGet(nodesVisited, Math::max);
+            }
+            latencyHistogram.incrementAndGet(bucket(nanos));
+            nodesVisitedHistogram.incrementAndGet(bucket(nodesVisited));
+        }
+
+        OperationStats stats() {
+            return new OperationStats(calls.sum(), nanos.sum(), maxNanos.get(), nodesVisited.sum(),
+                    maxNodesVisited.get(), toArray(latencyHistogram), toArray(nodesVisitedHistogram));
+        }
+
+        void reset() {
+            calls.reset();
+            nanos.reset();
+            nodesVisited.reset();
+            maxNanos.set(0);
+            maxNodesVisited.set(0);
+            for (int i = 0; i < latencyHistogram.length(); i++) {
+                latencyHistogram.set(i, 0);
+            }
+            for (int i = 0; i < nodesVisitedHistogram.length(); i++) {
+                nodesVisitedHistogram.set(i, 0);
+            }
+        }
+
+        private static long[] toArray(AtomicLongArray histogram) {
+            long[] array = new long[histogram.length()];
+            for (int i = 0; i < array.length; i++) {
+                array[i] = histogram.get(i);
+            }
+            return array;
+        }
+    }
+
+    /**
+     * the numbers of one operation at the moment they were read, the histograms are explained in
+     * {@link TreeMetrics}
+     */
+    public static final class OperationStats {
+        private final long calls;
+        private final long totalNanos;
+        private final long maxNanos;
+        private final long nodesVisited;
+        private final long maxNodesVisited;
+        private final long[] latencyHistogram;
+        private final long[] nodesVisitedHistogram;
+
+        @ConstructorParameters({"calls", "totalNanos", "maxNanos", "nodesVisited", "maxNodesVisited",
+                "latencyHistogram", "nodesVisitedHistogram"})
+        public OperationStats(long calls, long totalNanos, long maxNanos, long nodesVisited, long maxNodesVisited,
+                              long[] latencyHistogram, long[] nodesVisitedHistogram) {
+            this.calls = calls;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+            this.nodesVisited = nodesVisited;
+            this.maxNodesVisited = maxNodesVisited;
+            this.latencyHistogram = latencyHistogram;
+            this.nodesVisitedHistogram = nodesVisitedHistogram;
+        }
+
+        public long getCalls() {
+            return calls;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        public long getNodesVisited() {
+            return nodesVisited;
+        }
+
+        public long getMaxNodesVisited() {
+            return maxNodesVisited;
+        }
+
+        /**
+         * @return the number of calls for every power of two of nanoseconds
+         */
+        public long[] getLatencyHistogram() {
+            return latencyHistogram.clone();
+        }
+
+        /**
+         * @return the number of calls for every power of two of nodes visited
+         */
+        public long[] getNodesVisitedHistogram() {
+            return nodesVisitedHistogram.clone();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("calls: %d, average: %d ns, max: %d ns, nodes visited: %d, max nodes visited: %d",
+                    calls, calls == 0 ? 0 : totalNanos / calls, maxNanos, nodesVisited, maxNodesVisited);
+        }
+    }
+}
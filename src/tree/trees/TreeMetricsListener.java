@@ -0,0 +1,19 @@
+package tree.trees;
+
+/**
+ * this is told about every operation that {@link TreeMetrics} measured, it is called by the thread that did the
+ * operation right after it ended, so it should be fast
+ *
+ * @see TreeMetrics#addListener(TreeMetricsListener)
+ */
+@FunctionalInterface
+public interface TreeMetricsListener {
+
+    /**
+     * @param operation    the operation that ended
+     * @param nanos        how long it took
+     * @param nodesVisited the number of nodes it looked at
+     * @param maxDepth     the depth of the deepest node it looked at
+     */
+    void operationEnded(TreeMetrics.Operation operation, long nanos, int nodesVisited, int maxDepth);
+}
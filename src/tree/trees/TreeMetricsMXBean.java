@@ -0,0 +1,53 @@
+package tree.trees;
+
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * the attributes of {@link TreeMetrics} that can be read with JMX, for example with jconsole
+ *
+ * @see TreeMetrics#register(String)
+ */
+public interface TreeMetricsMXBean {
+
+    /**
+     * @return the numbers of every operation that was called at least once, by the name of the operation
+     */
+    Map<String, TreeMetrics.OperationStats> getOperations();
+
+    /**
+     * @return the depth of the deepest node any operation looked at
+     */
+    int getMaxDepth();
+
+    /**
+     * @return the number of operations that went deeper than {@link #getDeepThreshold()}, on a {@link Tree} those
+     * are the ones that should use an {@link AdvancedTree} before they generate a {@link StackOverflowError}
+     */
+    long getDeepCalls();
+
+    int getDeepThreshold();
+
+    void setDeepThreshold(int deepThreshold);
+
+    /**
+     * @return the number of nodes in the tree
+     */
+    int getSize();
+
+    /**
+     * @return the bytes of the nodes and the lists of children, the elements are not counted
+     */
+    long getEstimatedRetainedBytes();
+
+    /**
+     * @return for every number of children, rounded down to a power of two ({@code 0} stays {@code 0}), the number
+     * of nodes with that many children
+     */
+    SortedMap<Integer, Long> getFanOutHistogram();
+
+    /**
+     * this sets all numbers back to {@code 0}
+     */
+    void reset();
+}
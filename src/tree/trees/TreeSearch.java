@@ -0,0 +1,101 @@
+package tree.trees;
+
+import tree.Node;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * this goes through the nodes of a {@link Tree} in the order of {@link Tree#toArray()} and only stops at the nodes
+ * where the element matches. when the {@code prune} predicate is {@code true} for an element the node and everything
+ * under it is skipped, so those nodes are never visited. it only goes to the next match when it is asked, so a
+ * search that stops after a few matches does not go through the rest of the tree.
+ *
+ * <p>when the tree is changed while it searches the next call throws a {@link ConcurrentModificationException}</p>
+ *
+ * @param <E> the type of elements held in the tree
+ * @see Tree#find(Predicate, Predicate, int)
+ * @see Tree#findStream(Predicate, Predicate)
+ */
+final class TreeSearch<E> implements Iterator<Node<E>> {
+    private final Tree<E> tree;
+    private final Predicate<? super E> match;
+    private final Predicate<? super E> prune;
+    private final Traversal<E> traversal;
+    private final int expectedModCount;
+    private boolean advanced;
+    private boolean hasNext;
+    private int visited;
+    private int maxDepth;
+
+    TreeSearch(Tree<E> tree, Predicate<? super E> match, Predicate<? super E> prune) {
+        this.tree = tree;
+        this.match = match;
+        this.prune = prune;
+        traversal = new Traversal<E>().start(tree.getSize() == 0 ? null : tree.root, -1);
+        expectedModCount = tree.modCount;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (tree.modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+        if (!advanced) {
+            hasNext = advance();
+            advanced = true;
+        }
+        return hasNext;
+    }
+
+    @Override
+    public Node<E> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        advanced = false;
+        return traversal.node();
+    }
+
+    /**
+     * @return the absolute path to the node {@link #next()} returned the last
+     */
+    List<Integer> path() {
+        LinkedList<Integer> path = new LinkedList<>();
+        traversal.addPath(path);
+        return path;
+    }
+
+    /**
+     * @return the number of nodes it visited, the skipped subtrees are not counted
+     */
+    int visited() {
+        return visited;
+    }
+
+    /**
+     * @return the depth of the deepest node it visited
+     */
+    int maxDepth() {
+        return maxDepth;
+    }
+
+    private boolean advance() {
+        while (traversal.next()) {
+            visited++;
+            maxDepth = Math.max(maxDepth, traversal.depth());
+            E element = traversal.node().getElement();
+            if (prune.test(element)) {
+                traversal.skipChildren();
+            } else if (match.test(element)) {
+                return true;
+            }
+        }
+        traversal.end();
+        return false;
+    }
+}
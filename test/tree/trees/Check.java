@@ -0,0 +1,23 @@
+package tree.trees;
+
+import java.util.Objects;
+
+/**
+ * the checks the tests use, a failed check throws an {@link AssertionError} with the message
+ */
+final class Check {
+    private Check() {
+    }
+
+    static void that(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+
+    static void equal(Object expected, Object actual, String message) {
+        if (!Objects.equals(expected, actual)) {
+            throw new AssertionError(message + ": expected " + expected + " but was " + actual);
+        }
+    }
+}
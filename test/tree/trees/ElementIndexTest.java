@@ -0,0 +1,58 @@
+package tree.trees;
+
+import java.util.Random;
+
+/**
+ * checks that a tree with the element index gives the same answers as a tree without it and does not search the
+ * nodes for {@link Tree#contains(Object)}
+ */
+public class ElementIndexTest {
+    public static void main(String[] args) {
+        containsUsesTheIndex();
+        sameAnswersAsASearch();
+        System.out.println("ElementIndexTest: ok");
+    }
+
+    static void containsUsesTheIndex() {
+        Tree<Integer> tree = new Tree<>();
+        for (int i = 0; i < 100; i++) {
+            tree.insert(i % 10, i % 3 == 0);
+        }
+        tree.enableElementIndex();
+        TreeMetrics metrics = tree.enableMetrics();
+        Check.that(tree.contains(7), "contains an element in the tree");
+        Check.that(!tree.contains(42), "contains an element that is not in the tree");
+        TreeMetrics.OperationStats stats = metrics.getStats(TreeMetrics.Operation.CONTAINS);
+        Check.equal(2L, stats.getCalls(), "calls of contains");
+        Check.equal(0L, stats.getNodesVisited(), "nodes visited by contains with the index");
+    }
+
+    static void sameAnswersAsASearch() {
+        Random random = new Random(1);
+        for (int round = 0; round < 200; round++) {
+            Tree<Integer> indexed = new Tree<>();
+            indexed.enableElementIndex();
+            Tree<Integer> searched = new Tree<>();
+            for (int i = 0; i < 50; i++) {
+                int element = random.nextInt(8);
+                boolean movePointer = random.nextInt(3) == 0;
+                indexed.insert(element, movePointer);
+                searched.insert(element, movePointer);
+                if (random.nextInt(10) == 0) {
+                    indexed.setPointerToRoot();
+                    searched.setPointerToRoot();
+                }
+            }
+            for (int element = 0; element < 10; element++) {
+                Check.equal(searched.contains(element), indexed.contains(element), "contains " + element);
+                Check.equal(searched.getAbsolutePadToElement(element), indexed.getAbsolutePadToElement(element),
+                        "path to " + element);
+                Check.equal(searched.getAbsolutePatsToElement(element), indexed.getAbsolutePatsToElement(element),
+                        "paths to " + element);
+            }
+            int removed = 1 + random.nextInt(7);
+            Check.equal(searched.remove(removed), indexed.remove(removed), "remove " + removed);
+            Check.equal(searched.toList(), indexed.toList(), "elements after remove " + removed);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package tree.trees;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Random;
+
+/**
+ * checks that a tree with interval labels gives the same subtrees as a tree without them after nodes are added,
+ * removed and moved, and that the labels are turned on again when a serialized tree is read
+ */
+public class IntervalLabelsTest {
+    public static void main(String[] args) throws IOException, ClassNotFoundException {
+        sameSubtreesAsATraversal();
+        serializedTreeKeepsTheLabels();
+        System.out.println("IntervalLabelsTest: ok");
+    }
+
+    static void sameSubtreesAsATraversal() {
+        Random random = new Random(8);
+        for (int round = 0; round < 200; round++) {
+            Tree<Integer> labelled = new Tree<>();
+            labelled.enableIntervalLabels();
+            labelled.enableElementIndex();
+            Tree<Integer> plain = new Tree<>();
+            for (int step = 0; step < 80; step++) {
+                int element = random.nextInt(6);
+                switch (plain.getSize() == 0 ? 0 : random.nextInt(4)) {
+                    case 0:
+                    case 1:
+                        boolean movePointer = random.nextBoolean();
+                        labelled.insert(element, movePointer);
+                        plain.insert(element, movePointer);
+                        break;
+                    case 2:
+                        Check.equal(plain.remove(element), labelled.remove(element), "remove in round " + round);
+                        labelled.setPointerToRoot();
+                        plain.setPointerToRoot();
+                        break;
+                    default:
+                        int child = random.nextInt(3);
+                        Check.equal(plain.movePointerDown(child), labelled.movePointerDown(child),
+                                "move in round " + round);
+                        break;
+                }
+                if (plain.getSize() == 0) {
+                    continue;
+                }
+                Check.equal(plain.getSubtreeAtPointer(), labelled.getSubtreeAtPointer(),
+                        "subtree in round " + round);
+                Check.equal(plain.subtreeAtPointerContains(element), labelled.subtreeAtPointerContains(element),
+                        "subtree contains " + element + " in round " + round);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static void serializedTreeKeepsTheLabels() throws IOException, ClassNotFoundException {
+        Tree<Integer> tree = new AdvancedTree<>();
+        for (int i = 0; i < 30; i++) {
+            tree.insert(i % 5, i % 4 == 0);
+        }
+        tree.enableIntervalLabels();
+        tree.enableElementIndex();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(tree);
+        }
+        Tree<Integer> read;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            read = (Tree<Integer>) in.readObject();
+        }
+        Check.that(read.isIntervalLabelsEnabled(), "interval labels after reading");
+        Check.that(read.isElementIndexEnabled(), "element index after reading");
+        Check.equal(tree.getSubtreeAtPointer(), read.getSubtreeAtPointer(), "subtree after reading");
+        Check.equal(tree.toString(), read.toString(), "tree after reading");
+    }
+}
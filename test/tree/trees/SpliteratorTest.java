@@ -0,0 +1,111 @@
+package tree.trees;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+
+/**
+ * checks that the {@link Spliterator} of a {@link Tree} splits also when the tree starts with a chain, and that the
+ * parts have the exact sizes and together give the elements in the order of {@link Tree#preOrderIterator()}
+ */
+public class SpliteratorTest {
+    public static void main(String[] args) {
+        splitsOnASingleChildRoot();
+        splitsAfterAChain();
+        partsKeepTheOrder();
+        System.out.println("SpliteratorTest: ok");
+    }
+
+    static void splitsOnASingleChildRoot() {
+        Tree<Integer> tree = new Tree<>();
+        tree.insert(0);
+        tree.insert(1, true);
+        for (int i = 2; i < 1000; i++) {
+            tree.insert(i);
+        }
+        Spliterator<Integer> spliterator = tree.spliterator();
+        Spliterator<Integer> prefix = spliterator.trySplit();
+        Check.that(prefix != null, "split of a tree where the root has one child");
+        Check.equal(1000L, prefix.estimateSize() + spliterator.estimateSize(), "sizes of the parts");
+        Check.that(spliterator.trySplit() != null, "second split of a tree where the root has one child");
+        Check.equal(preOrder(tree), tree.parallelStream().collect(Collectors.toList()), "parallel stream");
+    }
+
+    static void splitsAfterAChain() {
+        Tree<Integer> tree = new Tree<>();
+        for (int i = 0; i < 50; i++) {
+            tree.insert(i, true);
+        }
+        for (int i = 50; i < 500; i++) {
+            tree.insert(i);
+        }
+        List<Spliterator<Integer>> parts = splitAll(tree.spliterator());
+        Check.that(parts.size() > 2, "parts of a tree that starts with a chain: " + parts.size());
+        Check.equal(preOrder(tree), elementsOf(parts), "elements of the parts");
+    }
+
+    static void partsKeepTheOrder() {
+        Random random = new Random(5);
+        for (int round = 0; round < 200; round++) {
+            Tree<Integer> tree = new Tree<>();
+            int size = 1 + random.nextInt(300);
+            for (int i = 0; i < size; i++) {
+                tree.insert(i, random.nextInt(3) == 0);
+                if (random.nextInt(20) == 0) {
+                    tree.setPointerToRoot();
+                }
+            }
+            Spliterator<Integer> spliterator = tree.spliterator();
+            if (random.nextBoolean()) {
+                spliterator.tryAdvance(e -> {
+                });
+                size--;
+            }
+            List<Spliterator<Integer>> parts = splitAll(spliterator);
+            long total = 0;
+            for (Spliterator<Integer> part : parts) {
+                total += part.estimateSize();
+            }
+            Check.equal((long) size, total, "sizes of the parts");
+            List<Integer> expected = preOrder(tree);
+            Check.equal(expected.subList(expected.size() - size, expected.size()), elementsOf(parts),
+                    "elements of the parts");
+        }
+    }
+
+    /**
+     * it splits every part again until no part can be split, the parts are in the order of their elements
+     */
+    private static List<Spliterator<Integer>> splitAll(Spliterator<Integer> spliterator) {
+        List<Spliterator<Integer>> parts = new ArrayList<>();
+        Spliterator<Integer> prefix = spliterator.trySplit();
+        if (prefix == null) {
+            parts.add(spliterator);
+            return parts;
+        }
+        parts.addAll(splitAll(prefix));
+        parts.addAll(splitAll(spliterator));
+        return parts;
+    }
+
+    private static List<Integer> elementsOf(List<Spliterator<Integer>> parts) {
+        List<Integer> elements = new ArrayList<>();
+        for (Spliterator<Integer> part : parts) {
+            long before = elements.size();
+            long expected = part.estimateSize();
+            part.forEachRemaining(elements::add);
+            Check.equal(expected, elements.size() - before, "exact size of a part");
+        }
+        return elements;
+    }
+
+    private static List<Integer> preOrder(Tree<Integer> tree) {
+        List<Integer> elements = new ArrayList<>();
+        Iterator<Integer> iterator = tree.preOrderIterator();
+        iterator.forEachRemaining(elements::add);
+        return elements;
+    }
+}
@@ -0,0 +1,173 @@
+package tree.trees;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * checks that the subtree hashes that are kept up to date give the same hash as a hash made from nothing, and that
+ * {@link Tree#equals(Object)} and {@link Tree#hashCode()} agree with the subtree hashes on and off, and that the
+ * hashes are turned on again when a serialized tree is read
+ */
+public class SubtreeHashTest {
+    public static void main(String[] args) throws IOException, ClassNotFoundException {
+        keptHashesStayCorrect();
+        equalsAndHashCodeAgree();
+        equalHashesAreChecked();
+        duplicateSubtrees();
+        serializedTreeKeepsTheHashes();
+        System.out.println("SubtreeHashTest: ok");
+    }
+
+    static void keptHashesStayCorrect() {
+        Random random = new Random(4);
+        for (int round = 0; round < 300; round++) {
+            Tree<Integer> tree = round % 2 == 0 ? new Tree<>() : new AdaptiveTree<>(3);
+            tree.enableSubtreeHashes();
+            for (int step = 0; step < 40; step++) {
+                long snapshot = tree.getSubtreeHash();
+                String before = tree.toString();
+                change(tree, random);
+                if (tree.getSize() == 0) {
+                    continue;
+                }
+                Check.equal(SubtreeHash.hashOf(tree.root), tree.getSubtreeHash(), "kept hash in round " + round);
+                Check.equal(SubtreeHash.hashAll(tree.pointer).get(tree.pointer), tree.getSubtreeHashAtPointer(),
+                        "kept hash at the pointer in round " + round);
+                if (snapshot == tree.getSubtreeHash()) {
+                    Check.equal(before, tree.toString(), "same hash after a change in round " + round);
+                }
+            }
+        }
+    }
+
+    static void equalsAndHashCodeAgree() {
+        Random random = new Random(6);
+        for (int round = 0; round < 500; round++) {
+            Tree<Integer> tree = randomTree(random);
+            Tree<Integer> copy = tree.makeCopyOfTree();
+            Tree<Integer> other = new AdvancedTree<>();
+            TreeDiff.between(other, tree).apply(other);
+            if (random.nextBoolean()) {
+                tree.enableSubtreeHashes();
+            }
+            if (random.nextBoolean()) {
+                copy.enableSubtreeHashes();
+            }
+            if (random.nextBoolean()) {
+                copy.disableSubtreeHashes();
+            }
+            Check.that(tree.equals(copy) && copy.equals(tree), "copy is equal in round " + round);
+            Check.that(tree.equals(other) && other.equals(tree), "tree of another class is equal in round " + round);
+            Check.equal(tree.hashCode(), copy.hashCode(), "hash code of a copy in round " + round);
+            Check.equal(tree.hashCode(), other.hashCode(), "hash code of another class in round " + round);
+
+            Tree<Integer> changed = randomTree(random);
+            boolean same = tree.toString().equals(changed.toString());
+            if (random.nextBoolean()) {
+                changed.enableSubtreeHashes();
+            }
+            Check.equal(same, tree.equals(changed), "equals of another tree in round " + round);
+            Check.equal(same, changed.equals(tree), "equals the other way in round " + round);
+            if (same) {
+                Check.equal(tree.hashCode(), changed.hashCode(), "hash code of an equal tree in round " + round);
+            }
+
+            copy.setPointerToRoot();
+            copy.setElementAtPointer(copy.getAtPointer() + 1);
+            Check.that(!tree.equals(copy) && !copy.equals(tree), "changed copy is not equal in round " + round);
+        }
+        Check.that(new Tree<Integer>().equals(new AdvancedTree<Integer>()), "empty trees are equal");
+        Check.equal(new Tree<Integer>().hashCode(), new AdvancedTree<Integer>().hashCode(), "hash code of empty trees");
+    }
+
+    /**
+     * {@code "Aa"} and {@code "BB"} have the same {@link String#hashCode()}, so the trees get the same hash
+     */
+    static void equalHashesAreChecked() {
+        Tree<String> first = new Tree<>();
+        Tree<String> second = new Tree<>();
+        first.enableSubtreeHashes();
+        second.enableSubtreeHashes();
+        first.insert("root");
+        first.insert("Aa");
+        second.insert("root");
+        second.insert("BB");
+        Check.equal(first.getSubtreeHash(), second.getSubtreeHash(), "hash of elements with the same hash code");
+        Check.that(!first.equals(second), "trees with elements that are not equal");
+    }
+
+    static void duplicateSubtrees() {
+        Tree<String> tree = new Tree<>();
+        tree.insert("root");
+        for (int i = 0; i < 2; i++) {
+            tree.setPointerToRoot();
+            tree.insert("a", true);
+            tree.insert("b");
+            tree.insert("c");
+        }
+        tree.setPointerToRoot();
+        tree.insert("b");
+        List<List<List<Integer>>> duplicates = tree.findDuplicateSubtrees(2);
+        Check.equal(List.of(List.of(List.of(0), List.of(1))), duplicates, "duplicates with at least two nodes");
+        tree.enableSubtreeHashes();
+        Check.equal(List.of(List.of(List.of(0), List.of(1)), List.of(List.of(0, 0), List.of(1, 0), List.of(2)),
+                List.of(List.of(0, 1), List.of(1, 1))), tree.findDuplicateSubtrees(1), "every duplicate");
+    }
+
+    @SuppressWarnings("unchecked")
+    static void serializedTreeKeepsTheHashes() throws IOException, ClassNotFoundException {
+        Tree<Integer> tree = randomTree(new Random(8));
+        tree.enableSubtreeHashes();
+        long hash = tree.getSubtreeHash();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(tree);
+        }
+        Tree<Integer> read;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            read = (Tree<Integer>) in.readObject();
+        }
+        Check.that(read.isSubtreeHashesEnabled(), "subtree hashes after reading");
+        Check.equal(hash, read.getSubtreeHash(), "hash after reading");
+        Check.equal(tree, read, "tree after reading");
+    }
+
+    private static Tree<Integer> randomTree(Random random) {
+        Tree<Integer> tree = new Tree<>();
+        int size = 1 + random.nextInt(6);
+        for (int i = 0; i < size; i++) {
+            tree.insert(random.nextInt(2), random.nextBoolean());
+        }
+        return tree;
+    }
+
+    private static void change(Tree<Integer> tree, Random random) {
+        if (tree.getSize() == 0) {
+            tree.insert(random.nextInt(4));
+            return;
+        }
+        switch (random.nextInt(6)) {
+            case 0:
+            case 1:
+            case 2:
+                tree.insert(random.nextInt(4), random.nextBoolean());
+                break;
+            case 3:
+                tree.setElementAtPointer(random.nextInt(4));
+                break;
+            case 4:
+                tree.remove(random.nextInt(4));
+                break;
+            default:
+                if (!tree.movePointerUp()) {
+                    tree.setPointerToRoot();
+                }
+                break;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package tree.trees;
+
+import java.util.Random;
+
+/**
+ * checks that {@code TreeDiff.between(a, b).apply(a)} turns {@code a} into a tree with the same elements in the same
+ * structure as {@code b}
+ */
+public class TreeDiffTest {
+    public static void main(String[] args) {
+        emptyTrees();
+        applyGivesTheNewTree();
+        System.out.println("TreeDiffTest: ok");
+    }
+
+    static void emptyTrees() {
+        Random random = new Random(2);
+        Tree<Integer> empty = new Tree<>();
+        Tree<Integer> tree = randomTree(random, 20);
+        Check.that(TreeDiff.between(empty, new Tree<>()).isEmpty(), "diff between empty trees");
+
+        Tree<Integer> from = tree.makeCopyOfTree();
+        TreeDiff.between(from, empty).apply(from);
+        Check.equal(0, from.getSize(), "size after the diff to an empty tree");
+
+        Tree<Integer> to = new Tree<>();
+        TreeDiff.between(to, tree).apply(to);
+        Check.equal(tree.toString(), to.toString(), "tree after the diff from an empty tree");
+    }
+
+    static void applyGivesTheNewTree() {
+        Random random = new Random(3);
+        for (int round = 0; round < 1000; round++) {
+            Tree<Integer> from = randomTree(random, 1 + random.nextInt(60));
+            Tree<Integer> to = random.nextBoolean() ? randomTree(random, 1 + random.nextInt(60)) : changed(from, random);
+            if (random.nextBoolean()) {
+                from.enableElementIndex();
+                from.enablePathCache(8);
+            }
+            if (random.nextBoolean()) {
+                from.enableIntervalLabels();
+            }
+            String expected = to.toString();
+            TreeDiff<Integer> diff = TreeDiff.between(from, to);
+            diff.apply(from);
+            Check.equal(expected, from.toString(), "tree after the diff in round " + round);
+            Check.equal(to.getSize(), from.getSize(), "size after the diff in round " + round);
+            Check.equal(to.toList(), from.toList(), "elements after the diff in round " + round);
+            Check.that(TreeDiff.between(from, to).isEmpty(), "diff after the diff in round " + round);
+            for (int element = 0; element < 6 && to.getSize() > 0; element++) {
+                Check.equal(to.getAbsolutePatsToElement(element), from.getAbsolutePatsToElement(element),
+                        "paths to " + element + " in round " + round);
+            }
+        }
+    }
+
+    private static Tree<Integer> randomTree(Random random, int size) {
+        Tree<Integer> tree = new Tree<>();
+        for (int i = 0; i < size; i++) {
+            tree.insert(random.nextInt(6), random.nextInt(3) == 0);
+            if (random.nextInt(8) == 0) {
+                tree.setPointerToRoot();
+            }
+        }
+        tree.setPointerToRoot();
+        return tree;
+    }
+
+    /**
+     * @return a copy of the tree with a few elements changed, nodes added and nodes removed
+     */
+    private static Tree<Integer> changed(Tree<Integer> tree, Random random) {
+        Tree<Integer> copy = tree.makeCopyOfTree();
+        int changes = 1 + random.nextInt(5);
+        for (int i = 0; i < changes; i++) {
+            copy.setPointerToRoot();
+            while (copy.movePointerDown(random.nextInt(3)) && random.nextInt(3) != 0) {
+                // it goes down to a random node
+            }
+            switch (copy.getSize() == 0 ? 1 : random.nextInt(3)) {
+                case 0:
+                    copy.setElementAtPointer(random.nextInt(6));
+                    break;
+                case 1:
+                    copy.insert(random.nextInt(6));
+                    break;
+                default:
+                    copy.remove(random.nextInt(6));
+                    break;
+            }
+        }
+        copy.setPointerToRoot();
+        return copy;
+    }
+}